@@ -2,8 +2,11 @@ package com.spring.Suwatha.analytics_module.controller;
 
 
 import com.spring.Suwatha.analytics_module.dto.BarChartDataDto;
+import com.spring.Suwatha.analytics_module.dto.ChartCacheStatsDto;
 import com.spring.Suwatha.analytics_module.dto.PieChartSliceDto;
 import com.spring.Suwatha.analytics_module.dto.StatisticsDto;
+import com.spring.Suwatha.analytics_module.service.LttbDownsampler;
+import com.spring.Suwatha.analytics_module.service.SessionRollupService;
 import com.spring.Suwatha.analytics_module.service.StatisticsService;
 import com.spring.Suwatha.session_module.entity.ActivityLog;
 import com.spring.Suwatha.session_module.service.ActivityLogService;
@@ -11,6 +14,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,10 +29,12 @@ public class AdminDashboardController {
     
     private final ActivityLogService activityLogService;
     private final StatisticsService statisticsService;
+    private final SessionRollupService sessionRollupService;
     
-    public AdminDashboardController(ActivityLogService activityLogService, StatisticsService statisticsService) {
+    public AdminDashboardController(ActivityLogService activityLogService, StatisticsService statisticsService, SessionRollupService sessionRollupService) {
         this.activityLogService = activityLogService;
         this.statisticsService = statisticsService;
+        this.sessionRollupService = sessionRollupService;
     }
     
 
@@ -60,16 +66,30 @@ public class AdminDashboardController {
         return ResponseEntity.ok(chartData);
     }
     
+    // maxPoints (optional) downsamples the bars with LTTB
     @GetMapping("/charts/peak-usage-hourly")
-    public ResponseEntity<List<BarChartDataDto>> getPeakUsageHourlyChart() {
-        List<BarChartDataDto> chartData = statisticsService.getPeakUsageHourlyBarChart();
+    public ResponseEntity<List<BarChartDataDto>> getPeakUsageHourlyChart(
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints) {
+        List<BarChartDataDto> chartData = LttbDownsampler.downsample(statisticsService.getPeakUsageHourlyBarChart(), maxPoints);
         return ResponseEntity.ok(chartData);
     }
     
     @GetMapping("/charts/daily-session-volume")
-    public ResponseEntity<List<BarChartDataDto>> getDailySessionVolumeChart() {
-        List<BarChartDataDto> chartData = statisticsService.getDailySessionVolumeBarChart();
+    public ResponseEntity<List<BarChartDataDto>> getDailySessionVolumeChart(
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints) {
+        List<BarChartDataDto> chartData = LttbDownsampler.downsample(statisticsService.getDailySessionVolumeBarChart(), maxPoints);
         return ResponseEntity.ok(chartData);
     }
     
+    @GetMapping("/charts/cache-stats")
+    public ResponseEntity<ChartCacheStatsDto> getChartCacheStats() {
+        return ResponseEntity.ok(statisticsService.getChartCacheStats());
+    }
+    
+    // Recomputes the chart rollup from the sessions table; returns the number of buckets written
+    @PostMapping("/charts/rollup/rebuild")
+    public ResponseEntity<Integer> rebuildSessionRollup() {
+        return ResponseEntity.ok(sessionRollupService.rebuild());
+    }
+    
 }
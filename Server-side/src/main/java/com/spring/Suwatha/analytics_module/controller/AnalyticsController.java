@@ -0,0 +1,68 @@
+package com.spring.Suwatha.analytics_module.controller;
+
+
+import com.spring.Suwatha.analytics_module.dto.PivotDimension;
+import com.spring.Suwatha.analytics_module.dto.PivotDto;
+import com.spring.Suwatha.analytics_module.dto.TimeGranularity;
+import com.spring.Suwatha.analytics_module.dto.TimeSeriesDto;
+import com.spring.Suwatha.analytics_module.dto.TimeSeriesSplit;
+import com.spring.Suwatha.analytics_module.service.PivotService;
+import com.spring.Suwatha.analytics_module.service.TimeSeriesService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+    
+    private final PivotService pivotService;
+    private final TimeSeriesService timeSeriesService;
+    
+    public AnalyticsController(PivotService pivotService, TimeSeriesService timeSeriesService) {
+        this.pivotService = pivotService;
+        this.timeSeriesService = timeSeriesService;
+    }
+    
+    /**
+     * Session summary counts cross-tabulated over two or three dimensions, e.g.
+     * {@code ?dimensions=illness,city,ageBand&from=2025-01-01&to=2025-03-31}.
+     * Dimensions: illness, city, ageBand, risk, gender. Dates are inclusive and optional.
+     */
+    @GetMapping("/pivot")
+    public ResponseEntity<PivotDto> getPivot(
+            @RequestParam("dimensions") List<String> dimensions,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<PivotDimension> pivotDimensions = dimensions.stream()
+                .map(PivotDimension::fromParam)
+                .toList();
+        return ResponseEntity.ok(pivotService.pivot(pivotDimensions, from, to));
+    }
+    
+    /**
+     * Sessions started per bucket between {@code from} (inclusive) and {@code to} (exclusive), e.g.
+     * {@code ?from=2025-01-01T00:00:00&to=2025-04-01T00:00:00&granularity=week&split=communicationType}.
+     * Granularity: minute, hour, day (default), week or month. Split: communicationType or status.
+     * With {@code maxPoints}, long ranges are allowed and downsampled (LTTB) to that many points.
+     */
+    @GetMapping("/time-series")
+    public ResponseEntity<TimeSeriesDto> getSessionTimeSeries(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "granularity", defaultValue = "day") String granularity,
+            @RequestParam(name = "split", required = false) String split,
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints) {
+        return ResponseEntity.ok(timeSeriesService.getSessionTimeSeries(
+                from, to, TimeGranularity.fromParam(granularity), TimeSeriesSplit.fromParam(split), maxPoints));
+    }
+}
@@ -4,22 +4,31 @@ package com.spring.Suwatha.analytics_module.controller;
 import com.spring.Suwatha.analytics_module.dto.reportDto.ReportDetailViewDto;
 import com.spring.Suwatha.analytics_module.dto.reportDto.ReportFiltersDto;
 import com.spring.Suwatha.analytics_module.dto.reportDto.ReportPageDto;
+import com.spring.Suwatha.analytics_module.service.ReportExportService;
 import com.spring.Suwatha.analytics_module.service.ReportService;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/reports")
 @PreAuthorize("hasRole('ADMIN')")
 public class ReportController {
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
     
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportExportService reportExportService) {
         this.reportService = reportService;
+        this.reportExportService = reportExportService;
     }
     
 //    @GetMapping
@@ -35,8 +44,18 @@ public ResponseEntity<ReportPageDto> getReports(
         @RequestParam(name = "illness", required = false) String illness,
         @RequestParam(name = "risk", required = false) String risk,
         @RequestParam(name = "age", required = false) Integer age,
+        @RequestParam(name = "cursor", required = false) String cursor, // present (even empty) = keyset paging
+        @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
         @PageableDefault(size = 10, sort = "date", direction = Sort.Direction.DESC) Pageable pageable) {
     
+    if (cursor != null) {
+        // Keyset mode always orders by date (then session id); only the direction is taken from sort
+        Sort.Order dateOrder = pageable.getSort().getOrderFor("date");
+        boolean ascending = dateOrder != null && dateOrder.isAscending();
+        return ResponseEntity.ok(reportService.getReportsAfterCursor(
+                searchTerm, month, city, illness, risk, age, cursor, pageable.getPageSize(), ascending, includeTotal));
+    }
+    
     ReportPageDto reports = reportService.getReports(
             searchTerm, month, city, illness, risk, age, pageable);
     
@@ -44,6 +63,42 @@ public ResponseEntity<ReportPageDto> getReports(
 }
     
     
+    /**
+     * Streams every report matching the same filters as the listing, as CSV (default) or NDJSON.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(name = "q", required = false) String searchTerm,
+            @RequestParam(name = "month", required = false) String month,
+            @RequestParam(name = "city", required = false) String city,
+            @RequestParam(name = "illness", required = false) String illness,
+            @RequestParam(name = "risk", required = false) String risk,
+            @RequestParam(name = "age", required = false) Integer age,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        
+        ReportExportService.Format exportFormat;
+        MediaType mediaType;
+        if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = ReportExportService.Format.CSV;
+            mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = ReportExportService.Format.NDJSON;
+            mediaType = MediaType.parseMediaType("application/x-ndjson");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String fileName = "reports-" + LocalDate.now() + "." + format.toLowerCase();
+        StreamingResponseBody body = out -> reportExportService.exportReports(
+                searchTerm, month, city, illness, risk, age, exportFormat, out);
+        
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+    
+    
     @GetMapping("/filters")
     public ResponseEntity<ReportFiltersDto> getReportFilters() {
         return ResponseEntity.ok(reportService.getReportFilters());
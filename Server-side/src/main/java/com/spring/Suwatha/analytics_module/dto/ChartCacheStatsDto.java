@@ -0,0 +1,14 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ChartCacheStatsDto {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private double hitRate;
+}
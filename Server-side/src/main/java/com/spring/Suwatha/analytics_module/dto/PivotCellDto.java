@@ -0,0 +1,11 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PivotCellDto {
+    private int[] coordinates; // one label index per dimension
+    private long count;
+}
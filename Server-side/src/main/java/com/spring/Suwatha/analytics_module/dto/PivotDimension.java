@@ -0,0 +1,35 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Session summary attributes the pivot endpoint can group by, with their request parameter names.
+ */
+public enum PivotDimension {
+    ILLNESS("illness"),
+    CITY("city"),
+    AGE_BAND("ageBand"),
+    RISK("risk"),
+    GENDER("gender");
+    
+    private final String param;
+    
+    PivotDimension(String param) {
+        this.param = param;
+    }
+    
+    public String getParam() {
+        return param;
+    }
+    
+    public static PivotDimension fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(dimension -> dimension.param.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidAnalyticsQueryException("Unknown pivot dimension '" + value + "'. Expected one of: "
+                        + Arrays.stream(values()).map(PivotDimension::getParam).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,19 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Sparse cross-tab: {@code labels.get(d)} lists the values of dimension d, and each cell addresses
+ * one combination by its index into those lists. Combinations with no summaries are omitted.
+ */
+@Data
+@AllArgsConstructor
+public class PivotDto {
+    private List<String> dimensions;
+    private List<List<String>> labels;
+    private List<PivotCellDto> cells;
+    private long total;
+}
@@ -0,0 +1,64 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+/**
+ * Bucket size of the session time series. Weeks start on Monday.
+ */
+public enum TimeGranularity {
+    MINUTE,
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH;
+    
+    public static TimeGranularity fromParam(String value) {
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.name().equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidAnalyticsQueryException("Unknown granularity '" + value
+                        + "'. Expected minute, hour, day, week or month."));
+    }
+    
+    // Start of the bucket that contains the given time
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case MINUTE -> time.truncatedTo(ChronoUnit.MINUTES);
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+    
+    public LocalDateTime plus(LocalDateTime bucketStart, long buckets) {
+        return switch (this) {
+            case MINUTE -> bucketStart.plusMinutes(buckets);
+            case HOUR -> bucketStart.plusHours(buckets);
+            case DAY -> bucketStart.plusDays(buckets);
+            case WEEK -> bucketStart.plusWeeks(buckets);
+            case MONTH -> bucketStart.plusMonths(buckets);
+        };
+    }
+    
+    /**
+     * Index of the bucket containing {@code time}, counted from the bucket starting at {@code origin}
+     * (which must itself be a bucket start). Constant time, so rows can be placed without sorting.
+     */
+    public long bucketIndex(LocalDateTime origin, LocalDateTime time) {
+        LocalDateTime bucketStart = truncate(time);
+        return switch (this) {
+            case MINUTE -> ChronoUnit.MINUTES.between(origin, bucketStart);
+            case HOUR -> ChronoUnit.HOURS.between(origin, bucketStart);
+            case DAY -> ChronoUnit.DAYS.between(origin, bucketStart);
+            case WEEK -> ChronoUnit.WEEKS.between(origin, bucketStart);
+            case MONTH -> ChronoUnit.MONTHS.between(origin, bucketStart);
+        };
+    }
+}
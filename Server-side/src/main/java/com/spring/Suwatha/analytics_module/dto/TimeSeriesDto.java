@@ -0,0 +1,19 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Session counts per bucket. {@code bucketStarts} has one entry per bucket, including empty ones, and
+ * every line's {@code values} is aligned with it.
+ */
+@Data
+@AllArgsConstructor
+public class TimeSeriesDto {
+    private TimeGranularity granularity;
+    private List<LocalDateTime> bucketStarts;
+    private List<TimeSeriesLineDto> series;
+}
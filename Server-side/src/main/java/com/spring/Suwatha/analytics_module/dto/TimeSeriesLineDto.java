@@ -0,0 +1,11 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TimeSeriesLineDto {
+    private String name; // "total", or the communication type / status of the split
+    private long[] values;
+}
@@ -0,0 +1,31 @@
+package com.spring.Suwatha.analytics_module.dto;
+
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+
+import java.util.Arrays;
+
+/**
+ * Optional breakdown of the session time series into one line per communication type or per status.
+ */
+public enum TimeSeriesSplit {
+    NONE("none"),
+    COMMUNICATION_TYPE("communicationType"),
+    STATUS("status");
+    
+    private final String param;
+    
+    TimeSeriesSplit(String param) {
+        this.param = param;
+    }
+    
+    public static TimeSeriesSplit fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        return Arrays.stream(values())
+                .filter(split -> split.param.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidAnalyticsQueryException("Unknown split '" + value
+                        + "'. Expected communicationType or status."));
+    }
+}
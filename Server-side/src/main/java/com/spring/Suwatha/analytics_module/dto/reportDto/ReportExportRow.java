@@ -0,0 +1,47 @@
+package com.spring.Suwatha.analytics_module.dto.reportDto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.Gender;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One exported report row. Built by a Criteria constructor projection, so exports never create
+ * managed entities. Clinical notes are intentionally not exported.
+ */
+@Data
+@NoArgsConstructor
+public class ReportExportRow {
+    private Long sessionId;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    private String patientHandle;
+    private String therapistName;
+    private String communicationType;
+    private Integer durationInMinutes;
+    private String illness;
+    private String city;
+    private String gender;
+    private Integer age;
+    private String riskAssessment;
+    
+    public ReportExportRow(Long sessionId, LocalDateTime startTime, String patientHandle, String therapistName,
+                           CommunicationType communicationType, Integer durationInMinutes, String illness, String city,
+                           Gender gender, Integer age, RiskAssessment riskAssessment) {
+        this.sessionId = sessionId;
+        this.startTime = startTime;
+        this.patientHandle = patientHandle;
+        this.therapistName = therapistName;
+        this.communicationType = communicationType != null ? communicationType.name() : null;
+        this.durationInMinutes = durationInMinutes;
+        this.illness = illness;
+        this.city = city;
+        this.gender = gender != null ? gender.name() : null;
+        this.age = age;
+        this.riskAssessment = riskAssessment != null ? riskAssessment.name() : null;
+    }
+}
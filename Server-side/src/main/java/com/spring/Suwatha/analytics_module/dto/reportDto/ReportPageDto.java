@@ -12,4 +12,6 @@ public class ReportPageDto {
     private List<ReportListViewDto> reports;
     private PaginationDto pagination;
     private ReportSummaryDto summary;
+    // Only set in cursor mode; pass it back as ?cursor= to get the next page (null on the last page)
+    private String nextCursor;
 }
@@ -0,0 +1,17 @@
+package com.spring.Suwatha.analytics_module.dto.reportDto;
+
+import com.spring.Suwatha.session_module.entity.SessionSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One keyset page of reports; {@code nextCursor} is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class ReportSlice {
+    private final List<SessionSummary> content;
+    private final String nextCursor;
+}
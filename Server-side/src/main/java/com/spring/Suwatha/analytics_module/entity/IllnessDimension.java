@@ -0,0 +1,32 @@
+package com.spring.Suwatha.analytics_module.entity;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per distinct illness entered in session summaries. {@code nameKey} is the canonical form
+ * (whitespace collapsed, lower-cased) used for matching; {@code name} is the spelling first seen.
+ */
+@Entity
+@Table(name = "dim_illness")
+@Data
+@NoArgsConstructor
+public class IllnessDimension {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "name_key", nullable = false, unique = true)
+    private String nameKey;
+}
@@ -0,0 +1,29 @@
+package com.spring.Suwatha.analytics_module.entity;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of sessions that started in a given hour, per communication type and current status.
+ * Maintained in the same transaction as the session writes, so the charts never scan {@code sessions}.
+ */
+@Entity
+@Table(name = "session_rollup", indexes = {
+        @Index(name = "idx_session_rollup_date_hour", columnList = "rollup_date, hour_of_day")
+})
+@Data
+@NoArgsConstructor
+public class SessionRollup {
+    
+    @EmbeddedId
+    private SessionRollupKey id;
+    
+    @Column(name = "session_count", nullable = false)
+    private long sessionCount;
+}
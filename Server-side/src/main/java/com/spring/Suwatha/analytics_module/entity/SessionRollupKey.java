@@ -0,0 +1,36 @@
+package com.spring.Suwatha.analytics_module.entity;
+
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRollupKey implements Serializable {
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "hour_of_day", nullable = false)
+    private int hourOfDay;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "communication_type", nullable = false, length = 20)
+    private CommunicationType communicationType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private SessionStatus status;
+}
@@ -0,0 +1,58 @@
+package com.spring.Suwatha.analytics_module.repository;
+
+
+import com.spring.Suwatha.analytics_module.entity.CityDimension;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CityDimensionRepository extends JpaRepository<CityDimension, Long> {
+    
+    Optional<CityDimension> findByNameKey(String nameKey);
+    
+    // Locking read: sees a row committed by a concurrent transaction after our snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT d FROM CityDimension d WHERE d.nameKey = :nameKey")
+    Optional<CityDimension> findLatestByNameKey(@Param("nameKey") String nameKey);
+    
+    // Returns 0 when another transaction already created the key
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO dim_city (name, name_key) VALUES (:name, :nameKey)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("nameKey") String nameKey);
+    
+    
+    //------------------- backfill of summaries written before the dimension existed -----------------------
+    
+    // Same canonical form as ReportDimensionService.canonicalKey: whitespace runs collapsed, trimmed, lower-cased
+    @Modifying
+    @Query(
+            value = """
+            INSERT IGNORE INTO dim_city (name, name_key)
+            SELECT MIN(TRIM(REGEXP_REPLACE(s.city, '\\\\s+', ' '))), LOWER(TRIM(REGEXP_REPLACE(s.city, '\\\\s+', ' ')))
+            FROM session_summary s
+            WHERE s.city_id IS NULL AND TRIM(REGEXP_REPLACE(s.city, '\\\\s+', ' ')) <> ''
+            GROUP BY LOWER(TRIM(REGEXP_REPLACE(s.city, '\\\\s+', ' ')))
+        """,
+            nativeQuery = true
+    )
+    int insertMissingFromSummaries();
+    
+    @Modifying
+    @Query(
+            value = """
+            UPDATE session_summary s
+            JOIN dim_city d ON d.name_key = LOWER(TRIM(REGEXP_REPLACE(s.city, '\\\\s+', ' ')))
+            SET s.city_id = d.id
+            WHERE s.city_id IS NULL
+        """,
+            nativeQuery = true
+    )
+    int linkSummaries();
+}
@@ -0,0 +1,58 @@
+package com.spring.Suwatha.analytics_module.repository;
+
+
+import com.spring.Suwatha.analytics_module.entity.IllnessDimension;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IllnessDimensionRepository extends JpaRepository<IllnessDimension, Long> {
+    
+    Optional<IllnessDimension> findByNameKey(String nameKey);
+    
+    // Locking read: sees a row committed by a concurrent transaction after our snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT d FROM IllnessDimension d WHERE d.nameKey = :nameKey")
+    Optional<IllnessDimension> findLatestByNameKey(@Param("nameKey") String nameKey);
+    
+    // Returns 0 when another transaction already created the key
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO dim_illness (name, name_key) VALUES (:name, :nameKey)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("nameKey") String nameKey);
+    
+    
+    //------------------- backfill of summaries written before the dimension existed -----------------------
+    
+    // Same canonical form as ReportDimensionService.canonicalKey: whitespace runs collapsed, trimmed, lower-cased
+    @Modifying
+    @Query(
+            value = """
+            INSERT IGNORE INTO dim_illness (name, name_key)
+            SELECT MIN(TRIM(REGEXP_REPLACE(s.identified_illness, '\\\\s+', ' '))), LOWER(TRIM(REGEXP_REPLACE(s.identified_illness, '\\\\s+', ' ')))
+            FROM session_summary s
+            WHERE s.illness_id IS NULL AND TRIM(REGEXP_REPLACE(s.identified_illness, '\\\\s+', ' ')) <> ''
+            GROUP BY LOWER(TRIM(REGEXP_REPLACE(s.identified_illness, '\\\\s+', ' ')))
+        """,
+            nativeQuery = true
+    )
+    int insertMissingFromSummaries();
+    
+    @Modifying
+    @Query(
+            value = """
+            UPDATE session_summary s
+            JOIN dim_illness d ON d.name_key = LOWER(TRIM(REGEXP_REPLACE(s.identified_illness, '\\\\s+', ' ')))
+            SET s.illness_id = d.id
+            WHERE s.illness_id IS NULL
+        """,
+            nativeQuery = true
+    )
+    int linkSummaries();
+}
@@ -0,0 +1,31 @@
+package com.spring.Suwatha.analytics_module.repository;
+
+
+import com.spring.Suwatha.shared.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the reports listing: the (session start time, session id) of the last row returned.
+ * Clients only see it as an opaque URL-safe token.
+ */
+public record ReportCursor(LocalDateTime startTime, Long sessionId) {
+    
+    public String encode() {
+        String raw = startTime + "|" + sessionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static ReportCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new ReportCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("The pagination cursor is invalid or has expired.");
+        }
+    }
+}
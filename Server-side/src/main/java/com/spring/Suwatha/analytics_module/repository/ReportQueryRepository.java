@@ -1,36 +1,54 @@
 package com.spring.Suwatha.analytics_module.repository;
 
+import com.spring.Suwatha.analytics_module.dto.reportDto.ReportExportRow;
+import com.spring.Suwatha.analytics_module.dto.reportDto.ReportSlice;
 import com.spring.Suwatha.analytics_module.dto.reportDto.ReportSummaryDto;
+import com.spring.Suwatha.analytics_module.service.ReportDimensionService;
 import com.spring.Suwatha.session_module.dto.RiskAssessment;
 import com.spring.Suwatha.session_module.entity.Patient;
 import com.spring.Suwatha.session_module.entity.Session;
 import com.spring.Suwatha.session_module.entity.SessionSummary;
+import com.spring.Suwatha.shared.search.NameSearchIndex;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable; // Correct import
 import org.springframework.data.domain.Sort;   // Correct import
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public class ReportQueryRepository {
     
     private final EntityManager em;
+    private final NameSearchIndex nameSearchIndex;
+    private final ReportDimensionService reportDimensionService;
     
-    public ReportQueryRepository(EntityManager em) {
+    public ReportQueryRepository(EntityManager em, NameSearchIndex nameSearchIndex, ReportDimensionService reportDimensionService) {
         this.em = em;
+        this.nameSearchIndex = nameSearchIndex;
+        this.reportDimensionService = reportDimensionService;
     }
     
     public Page<SessionSummary> findReportsWithFilters(String searchTerm, String month, String city, String illness, String risk, Integer age, Pageable pageable) {
+        return findReportsWithFilters(searchTerm, month, city, illness, risk, age, pageable, null);
+    }
+    
+    /**
+     * @param knownTotal total number of matching reports if the caller already has it, so the count query is skipped
+     */
+    public Page<SessionSummary> findReportsWithFilters(String searchTerm, String month, String city, String illness, String risk, Integer age,
+                                                       Pageable pageable, Long knownTotal) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<SessionSummary> query = cb.createQuery(SessionSummary.class);
         Root<SessionSummary> summary = query.from(SessionSummary.class);
@@ -51,11 +69,99 @@ public class ReportQueryRepository {
         typedQuery.setMaxResults(pageable.getPageSize());
         List<SessionSummary> resultList = typedQuery.getResultList();
         
-        Long total = getTotalCount(cb, searchTerm, month, city, illness, risk, age);
+        Long total = knownTotal != null ? knownTotal : getTotalCount(cb, searchTerm, month, city, illness, risk, age);
         
         return new PageImpl<>(resultList, pageable, total);
     }
     
+    /**
+     * Keyset variant of {@link #findReportsWithFilters}: seeks past the (startTime, sessionId) in the cursor
+     * instead of skipping rows, so every page costs the same no matter how deep it is. No count query is run.
+     * @param cursor position after which to continue, or null for the first page
+     */
+    public ReportSlice findReportsAfter(String searchTerm, String month, String city, String illness, String risk, Integer age,
+                                        ReportCursor cursor, int pageSize, boolean ascending) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<SessionSummary> query = cb.createQuery(SessionSummary.class);
+        Root<SessionSummary> summary = query.from(SessionSummary.class);
+        
+        @SuppressWarnings("unchecked")
+        Join<SessionSummary, Session> session = (Join<SessionSummary, Session>) summary.<SessionSummary, Session>fetch("session", JoinType.INNER);
+        session.fetch("patient", JoinType.INNER);
+        session.fetch("therapist", JoinType.INNER);
+        
+        Path<LocalDateTime> startTime = session.get("startTime");
+        Path<Long> sessionId = summary.get("id");
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(buildPredicate(cb, summary, session, searchTerm, month, city, illness, risk, age));
+        if (cursor != null) {
+            // (startTime, id) strictly after the cursor in the requested direction
+            predicates.add(ascending
+                    ? cb.or(cb.greaterThan(startTime, cursor.startTime()),
+                            cb.and(cb.equal(startTime, cursor.startTime()), cb.greaterThan(sessionId, cursor.sessionId())))
+                    : cb.or(cb.lessThan(startTime, cursor.startTime()),
+                            cb.and(cb.equal(startTime, cursor.startTime()), cb.lessThan(sessionId, cursor.sessionId()))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(ascending
+                ? List.of(cb.asc(startTime), cb.asc(sessionId))
+                : List.of(cb.desc(startTime), cb.desc(sessionId)));
+        
+        // One extra row tells us whether there is a next page
+        List<SessionSummary> rows = em.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+        
+        if (rows.size() <= pageSize) {
+            return new ReportSlice(rows, null);
+        }
+        List<SessionSummary> page = rows.subList(0, pageSize);
+        SessionSummary last = page.get(pageSize - 1);
+        String nextCursor = new ReportCursor(last.getSession().getStartTime(), last.getId()).encode();
+        return new ReportSlice(page, nextCursor);
+    }
+    
+    /**
+     * Streams every matching report as a scalar projection, oldest first. The MySQL driver only streams
+     * rows (instead of buffering the whole result) with a forward-only cursor and fetch size
+     * Integer.MIN_VALUE; since no entities are selected the persistence context stays empty.
+     * The caller must close the stream inside a transaction.
+     */
+    public Stream<ReportExportRow> streamReportsForExport(String searchTerm, String month, String city, String illness, String risk, Integer age) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ReportExportRow> query = cb.createQuery(ReportExportRow.class);
+        Root<SessionSummary> summary = query.from(SessionSummary.class);
+        Join<SessionSummary, Session> session = summary.join("session");
+        Join<Session, Therapist> therapist = session.join("therapist");
+        Join<Session, Patient> patient = session.join("patient");
+        
+        query.select(cb.construct(ReportExportRow.class,
+                summary.get("id"),
+                session.get("startTime"),
+                patient.get("anonymousHandle"),
+                therapist.get("name"),
+                session.get("communicationType"),
+                summary.get("durationInMinutes"),
+                summary.get("identifiedIllness"),
+                summary.get("city"),
+                summary.get("gender"),
+                summary.get("age"),
+                summary.get("riskAssessment")
+        ));
+        query.where(buildPredicate(cb, summary, session, therapist, patient, searchTerm, month, city, illness, risk, age));
+        query.orderBy(cb.asc(session.get("startTime")), cb.asc(summary.get("id")));
+        
+        return em.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+    
+    public long countReportsWithFilters(String searchTerm, String month, String city, String illness, String risk, Integer age) {
+        return getTotalCount(em.getCriteriaBuilder(), searchTerm, month, city, illness, risk, age);
+    }
+    
     public ReportSummaryDto getSummaryStatisticsWithFilters(String searchTerm, String month, String city, String illness, String risk, Integer age) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
@@ -103,30 +209,40 @@ public class ReportQueryRepository {
     
     private Predicate buildPredicate(CriteriaBuilder cb, Root<SessionSummary> summary, Join<SessionSummary, Session> session,
                                      String searchTerm, String month, String city, String illness, String risk, Integer age) {
+        return buildPredicate(cb, summary, session, session.join("therapist"), session.join("patient"), searchTerm, month, city, illness, risk, age);
+    }
+    
+    private Predicate buildPredicate(CriteriaBuilder cb, Root<SessionSummary> summary, Join<SessionSummary, Session> session,
+                                     Join<Session, Therapist> therapist, Join<Session, Patient> patient,
+                                     String searchTerm, String month, String city, String illness, String risk, Integer age) {
         List<Predicate> predicates = new ArrayList<>();
-        Join<Session, Therapist> therapist = session.join("therapist");
-        Join<Session, Patient> patient = session.join("patient");
         
         if (searchTerm != null && !searchTerm.isBlank()) {
-            Predicate therapistNameLike = cb.like(cb.lower(therapist.get("name")), "%" + searchTerm.toLowerCase() + "%");
-            Predicate patientHandleLike = cb.like(cb.lower(patient.get("anonymousHandle")), "%" + searchTerm.toLowerCase() + "%");
+            Predicate therapistNameLike = nameSearchIndex.therapistNameMatches(cb, therapist, searchTerm);
+            Predicate patientHandleLike = nameSearchIndex.patientHandleMatches(cb, patient, searchTerm);
             predicates.add(cb.or(therapistNameLike, patientHandleLike));
         }
         
         if (month != null && !month.isBlank()) {
             try {
                 YearMonth yearMonth = YearMonth.parse(month); // Expects "YYYY-MM"
-                LocalDate start = yearMonth.atDay(1);
-                LocalDate end = yearMonth.atEndOfMonth();
-                predicates.add(cb.between(session.get("startTime").as(LocalDate.class), start, end));
+                // Half-open range on the raw column, so the start_time indexes stay usable
+                Path<LocalDateTime> startTime = session.get("startTime");
+                predicates.add(cb.greaterThanOrEqualTo(startTime, yearMonth.atDay(1).atStartOfDay()));
+                predicates.add(cb.lessThan(startTime, yearMonth.plusMonths(1).atDay(1).atStartOfDay()));
             } catch (DateTimeParseException e) { /* Ignore invalid month format */ }
         }
         
+        // City and illness compare the indexed dimension ids; an unknown name can't match anything
         if (city != null && !city.isBlank()) {
-            predicates.add(cb.equal(cb.lower(summary.get("city")), city.toLowerCase()));
+            predicates.add(reportDimensionService.findCityId(city)
+                    .map(cityId -> cb.equal(summary.get("cityDimension").get("id"), cityId))
+                    .orElseGet(cb::disjunction));
         }
         if (illness != null && !illness.isBlank()) {
-            predicates.add(cb.equal(cb.lower(summary.get("identifiedIllness")), illness.toLowerCase()));
+            predicates.add(reportDimensionService.findIllnessId(illness)
+                    .map(illnessId -> cb.equal(summary.get("illnessDimension").get("id"), illnessId))
+                    .orElseGet(cb::disjunction));
         }
         if (risk != null && !risk.isBlank()) {
             try {
@@ -0,0 +1,96 @@
+package com.spring.Suwatha.analytics_module.repository;
+
+
+import com.spring.Suwatha.analytics_module.entity.SessionRollup;
+import com.spring.Suwatha.analytics_module.entity.SessionRollupKey;
+import com.spring.Suwatha.analytics_module.projection.IDailySessionCountProjection;
+import com.spring.Suwatha.analytics_module.projection.IHourlyUsageProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SessionRollupRepository extends JpaRepository<SessionRollup, SessionRollupKey> {
+    
+    // Upsert: creates the bucket on first use, otherwise adds the delta in place
+    @Modifying
+    @Query(
+            value = """
+            INSERT INTO session_rollup (rollup_date, hour_of_day, communication_type, status, session_count)
+            VALUES (:rollupDate, :hourOfDay, :communicationType, :status, :delta)
+            ON DUPLICATE KEY UPDATE session_count = session_count + :delta
+        """,
+            nativeQuery = true
+    )
+    int addToBucket(@Param("rollupDate") LocalDate rollupDate,
+                    @Param("hourOfDay") int hourOfDay,
+                    @Param("communicationType") String communicationType,
+                    @Param("status") String status,
+                    @Param("delta") long delta);
+    
+    
+    @Query(
+            value = """
+            SELECT
+                r.hour_of_day AS hourOfDay,
+                CAST(SUM(r.session_count) AS SIGNED) AS sessionCount
+            FROM
+                session_rollup r
+            GROUP BY
+                r.hour_of_day
+            ORDER BY
+                hourOfDay ASC
+        """,
+            nativeQuery = true
+    )
+    List<IHourlyUsageProjection> getHourlyUsage();
+    
+    
+    @Query(
+            value = """
+            SELECT
+                r.rollup_date AS sessionDate,
+                CAST(SUM(r.session_count) AS SIGNED) AS sessionCount
+            FROM
+                session_rollup r
+            WHERE
+                r.rollup_date >= :startDate
+            GROUP BY
+                r.rollup_date
+            ORDER BY
+                sessionDate ASC
+        """,
+            nativeQuery = true
+    )
+    List<IDailySessionCountProjection> getDailySessionCountsSince(@Param("startDate") LocalDate startDate);
+    
+    
+    // Date-range scan on idx_session_rollup_date_hour; feeds the time-series endpoint
+    @Query("SELECT r FROM SessionRollup r WHERE r.id.rollupDate >= :fromDate AND r.id.rollupDate <= :toDate")
+    List<SessionRollup> findBucketsBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    
+    // Rebuilds every bucket from the sessions table in one statement; existing buckets take the recomputed count
+    @Modifying
+    @Query(
+            value = """
+            INSERT INTO session_rollup (rollup_date, hour_of_day, communication_type, status, session_count)
+            SELECT DATE(s.start_time), HOUR(s.start_time), s.communication_type, s.status, COUNT(*)
+            FROM sessions s
+            WHERE s.start_time IS NOT NULL
+            GROUP BY DATE(s.start_time), HOUR(s.start_time), s.communication_type, s.status
+            ON DUPLICATE KEY UPDATE session_count = VALUES(session_count)
+        """,
+            nativeQuery = true
+    )
+    int backfillFromSessions();
+    
+    @Modifying
+    @Query(value = "DELETE FROM session_rollup", nativeQuery = true)
+    int deleteAllBuckets();
+}
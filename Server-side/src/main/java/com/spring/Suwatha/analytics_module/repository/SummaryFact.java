@@ -0,0 +1,15 @@
+package com.spring.Suwatha.analytics_module.repository;
+
+import com.spring.Suwatha.session_module.dto.Gender;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+
+import java.time.LocalDateTime;
+
+/**
+ * The filterable facts of one session summary, as held by the in-memory summary column store.
+ * City and illness are dimension ids (null when the summary left them blank).
+ */
+public record SummaryFact(Long summaryId, LocalDateTime sessionStartTime, Long patientId, Long therapistId,
+                          Long cityId, Long illnessId, RiskAssessment riskAssessment, Integer age, Gender gender,
+                          Integer durationInMinutes) {
+}
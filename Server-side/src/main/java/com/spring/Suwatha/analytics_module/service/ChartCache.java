@@ -0,0 +1,162 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.dto.ChartCacheStatsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded TTL cache for admin chart data. Concurrent misses on the same key share one load, so several
+ * admins refreshing at once cost a single query. Entries are also dropped explicitly when the data
+ * behind them changes (see {@link ChartCacheInvalidator}).
+ */
+@Component
+public class ChartCache {
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    
+    public ChartCache(MeterRegistry meterRegistry,
+                      @Value("${analytics.chart-cache.ttl-ms:60000}") long ttlMs,
+                      @Value("${analytics.chart-cache.max-entries:100}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("analytics.chart_cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("analytics.chart_cache.misses").register(meterRegistry);
+        this.evictions = Counter.builder("analytics.chart_cache.evictions")
+                .description("Entries removed by expiry, size bound or invalidation")
+                .register(meterRegistry);
+        Gauge.builder("analytics.chart_cache.size", entries, Map::size).register(meterRegistry);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.nanoTime();
+        Entry current = entries.get(key);
+        if (current != null && !current.isExpired(now)) {
+            hits.increment();
+            return (T) await(current.value);
+        }
+        
+        misses.increment();
+        Entry fresh = new Entry(new CompletableFuture<>(), now + ttlNanos);
+        Entry winner = entries.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+            if (existing != null) {
+                evictions.increment();
+            }
+            return fresh;
+        });
+        if (winner != fresh) {
+            // Another caller is already loading (or just loaded) this key
+            return (T) await(winner.value);
+        }
+        
+        try {
+            T value = loader.get();
+            fresh.value.complete(value);
+            enforceBound();
+            return value;
+        } catch (RuntimeException ex) {
+            entries.remove(key, fresh);
+            fresh.value.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+    
+    public void invalidate(String key) {
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+    
+    public void invalidatePrefix(String prefix) {
+        entries.keySet().removeIf(key -> {
+            boolean matches = key.startsWith(prefix);
+            if (matches) {
+                evictions.increment();
+            }
+            return matches;
+        });
+    }
+    
+    public void invalidateAll() {
+        invalidatePrefix("");
+    }
+    
+    public ChartCacheStatsDto getStats() {
+        long hitCount = (long) hits.count();
+        long missCount = (long) misses.count();
+        long total = hitCount + missCount;
+        return new ChartCacheStatsDto(hitCount, missCount, (long) evictions.count(), entries.size(),
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+    
+    // Drops expired entries first, then the ones closest to expiry, until the cache is within bounds
+    private void enforceBound() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().isExpired(now);
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        while (entries.size() > maxEntries) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAtNanos))
+                    .ifPresent(oldest -> {
+                        if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                            evictions.increment();
+                        }
+                    });
+        }
+    }
+    
+    private static Object await(CompletableFuture<Object> value) {
+        try {
+            return value.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    
+    private static final class Entry {
+        private final CompletableFuture<Object> value;
+        private final long expiresAtNanos;
+        
+        private Entry(CompletableFuture<Object> value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+        
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
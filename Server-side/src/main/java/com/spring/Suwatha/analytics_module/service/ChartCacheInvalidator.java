@@ -0,0 +1,34 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.session_module.event.SessionSummaryCreatedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops only the cached charts whose source data a committed write has changed.
+ * Session end/cancel only move counts between status buckets, which the charts sum over, so they are ignored.
+ */
+@Component
+public class ChartCacheInvalidator {
+    
+    private final ChartCache chartCache;
+    
+    public ChartCacheInvalidator(ChartCache chartCache) {
+        this.chartCache = chartCache;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSummaryCreated(SessionSummaryCreatedEvent event) {
+        chartCache.invalidatePrefix(StatisticsService.ILLNESS_DISTRIBUTION_CHART);
+        chartCache.invalidatePrefix(ReportService.REPORT_TOTAL_CACHE_KEY);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionStarted(SessionStartedEvent event) {
+        chartCache.invalidatePrefix(StatisticsService.HOURLY_USAGE_CHART);
+        chartCache.invalidatePrefix(StatisticsService.DAILY_VOLUME_CHART);
+    }
+}
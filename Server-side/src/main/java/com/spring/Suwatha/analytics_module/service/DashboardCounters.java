@@ -0,0 +1,214 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.dto.StatisticsDto;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import com.spring.Suwatha.session_module.event.FeedbackSubmittedEvent;
+import com.spring.Suwatha.session_module.event.SessionCancelledEvent;
+import com.spring.Suwatha.session_module.event.SessionEndedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.session_module.repo.SessionFeedbackRepository;
+import com.spring.Suwatha.session_module.repo.SessionRepository;
+import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import com.spring.Suwatha.user_module.event.TherapistStatusChangedEvent;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory admin dashboard figures. Seeded from the database at startup, then kept current by the
+ * session, therapist-status and feedback events after each commit, so reading the dashboard costs no query.
+ * A periodic reconciliation re-reads the database and corrects any drift (e.g. writes from another instance).
+ */
+@Component
+public class DashboardCounters {
+    
+    private static final Logger log = LoggerFactory.getLogger(DashboardCounters.class);
+    
+    private final SessionRepository sessionRepository;
+    private final TherapistRepository therapistRepository;
+    private final SessionFeedbackRepository feedbackRepository;
+    
+    private final AtomicLong activeSessions = new AtomicLong();
+    private final AtomicLong totalSessions = new AtomicLong();
+    private final AtomicLong finishedSessions = new AtomicLong();
+    private final AtomicLong sessionsToday = new AtomicLong();
+    private volatile LocalDate today = LocalDate.now();
+    
+    private final AtomicLong ratingSum = new AtomicLong();
+    private final AtomicLong ratingCount = new AtomicLong();
+    
+    // Last known state per therapist, so every change can move exactly one unit between buckets
+    private final Map<Long, TherapistState> therapistStates = new ConcurrentHashMap<>();
+    private final Map<TherapistStatus, AtomicLong> activeTherapistsByStatus = new EnumMap<>(TherapistStatus.class);
+    private final Map<TherapistStatus, AtomicLong> inactiveTherapistsByStatus = new EnumMap<>(TherapistStatus.class);
+    
+    public DashboardCounters(SessionRepository sessionRepository, TherapistRepository therapistRepository, SessionFeedbackRepository feedbackRepository) {
+        this.sessionRepository = sessionRepository;
+        this.therapistRepository = therapistRepository;
+        this.feedbackRepository = feedbackRepository;
+        for (TherapistStatus status : TherapistStatus.values()) {
+            activeTherapistsByStatus.put(status, new AtomicLong());
+            inactiveTherapistsByStatus.put(status, new AtomicLong());
+        }
+    }
+    
+    
+    //------------------------------ Read ------------------------------
+    
+    public StatisticsDto snapshot() {
+        rollDayIfNeeded();
+        StatisticsDto dto = new StatisticsDto();
+        dto.setActiveSessions((int) activeSessions.get());
+        dto.setTotalSessions(totalSessions.get());
+        dto.setFinishedSessions(finishedSessions.get());
+        dto.setSessionsToday(sessionsToday.get());
+        dto.setTherapistsAvailable(activeTherapistsByStatus.get(TherapistStatus.AVAILABLE).get());
+        dto.setBusyTherapists(activeTherapistsByStatus.get(TherapistStatus.BUSY).get());
+        // Matches the original query: offline counts inactive therapists too
+        dto.setOfflineTherapists(activeTherapistsByStatus.get(TherapistStatus.OFFLINE).get()
+                + inactiveTherapistsByStatus.get(TherapistStatus.OFFLINE).get());
+        dto.setTotalTherapists(therapistStates.size());
+        long count = ratingCount.get();
+        dto.setAverageSessionRating(count == 0 ? 0.0 : (double) ratingSum.get() / count);
+        return dto;
+    }
+    
+    // Therapists with isActive = true, whatever their current status
+    public long activeTherapistCount() {
+        return activeTherapistsByStatus.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+    
+    
+    //------------------------------ Event-driven updates ------------------------------
+    
+    // Synchronized with reconcile(): an update landing between its database read and set() would be lost
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSessionStarted(SessionStartedEvent event) {
+        rollDayIfNeeded();
+        totalSessions.incrementAndGet();
+        activeSessions.incrementAndGet();
+        if (event.getStartTime().toLocalDate().equals(today)) {
+            sessionsToday.incrementAndGet();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSessionEnded(SessionEndedEvent event) {
+        activeSessions.decrementAndGet();
+        finishedSessions.incrementAndGet();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onSessionCancelled(SessionCancelledEvent event) {
+        if (event.getPreviousStatus() == SessionStatus.ACTIVE) {
+            activeSessions.decrementAndGet();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onFeedbackSubmitted(FeedbackSubmittedEvent event) {
+        ratingSum.addAndGet(event.getRating());
+        ratingCount.incrementAndGet();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onTherapistStatusChanged(TherapistStatusChangedEvent event) {
+        TherapistState next = new TherapistState(event.getStatus(), event.isActive());
+        therapistStates.compute(event.getTherapistId(), (id, previous) -> {
+            if (previous != null) {
+                bucket(previous).decrementAndGet();
+            }
+            bucket(next).incrementAndGet();
+            return next;
+        });
+    }
+    
+    private AtomicLong bucket(TherapistState state) {
+        return (state.active ? activeTherapistsByStatus : inactiveTherapistsByStatus).get(state.status);
+    }
+    
+    private void rollDayIfNeeded() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            synchronized (this) {
+                if (!now.equals(today)) {
+                    today = now;
+                    sessionsToday.set(0);
+                }
+            }
+        }
+    }
+    
+    
+    //------------------------------ Seed and reconcile from the database ------------------------------
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+    
+    /**
+     * Replaces every counter with the database value. Each statement is an indexed count or a narrow
+     * scan of the therapist table; none of them touch the expensive per-day expression of the old query.
+     * Holds the same lock as the event listeners, so an update arriving mid-read is applied after the
+     * fresh values instead of being overwritten by them.
+     */
+    @Scheduled(initialDelayString = "${analytics.dashboard.reconcile-interval-ms:600000}",
+               fixedDelayString = "${analytics.dashboard.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        LocalDate currentDay = LocalDate.now();
+        long active = sessionRepository.countByStatus(SessionStatus.ACTIVE);
+        long total = sessionRepository.count();
+        long finished = sessionRepository.countByStatus(SessionStatus.COMPLETED);
+        long startedToday = sessionRepository.countByStartTimeGreaterThanEqual(currentDay.atStartOfDay());
+        
+        Object[] ratingTotals = feedbackRepository.getRatingTotals().get(0);
+        long sum = ((Number) ratingTotals[0]).longValue();
+        long count = ((Number) ratingTotals[1]).longValue();
+        
+        Map<Long, TherapistState> states = new HashMap<>();
+        for (Object[] row : therapistRepository.findAllStatusSnapshots()) {
+            states.put((Long) row[0], new TherapistState((TherapistStatus) row[1], (Boolean) row[2]));
+        }
+        
+        long drift = Math.abs(activeSessions.get() - active) + Math.abs(totalSessions.get() - total);
+        if (drift > 0 && !therapistStates.isEmpty()) {
+            log.info("Dashboard counters drifted from the database by {} session(s); correcting", drift);
+        }
+        
+        activeSessions.set(active);
+        totalSessions.set(total);
+        finishedSessions.set(finished);
+        today = currentDay;
+        sessionsToday.set(startedToday);
+        ratingSum.set(sum);
+        ratingCount.set(count);
+        
+        therapistStates.clear();
+        activeTherapistsByStatus.values().forEach(counter -> counter.set(0));
+        inactiveTherapistsByStatus.values().forEach(counter -> counter.set(0));
+        states.forEach((id, state) -> {
+            therapistStates.put(id, state);
+            bucket(state).incrementAndGet();
+        });
+    }
+    
+    
+    private record TherapistState(TherapistStatus status, boolean active) {
+    }
+}
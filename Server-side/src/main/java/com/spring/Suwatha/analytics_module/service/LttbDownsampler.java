@@ -0,0 +1,98 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.dto.BarChartDataDto;
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling of evenly spaced chart series. Keeps the first and last
+ * point and, from each bucket in between, the point forming the largest triangle with the previously
+ * kept point and the average of the next bucket, so peaks and dips survive. One pass over the input;
+ * the only allocation is the array of kept indexes.
+ */
+public final class LttbDownsampler {
+    
+    // Fewer points can't describe a shape
+    public static final int MIN_POINTS = 3;
+    
+    private LttbDownsampler() {
+    }
+    
+    public static void validate(Integer maxPoints) {
+        if (maxPoints != null && maxPoints < MIN_POINTS) {
+            throw new InvalidAnalyticsQueryException("maxPoints must be at least " + MIN_POINTS + ".");
+        }
+    }
+    
+    /**
+     * @return ascending indexes of the points to keep; every index when the series already fits
+     */
+    public static int[] selectIndexes(long[] values, int maxPoints) {
+        int size = values.length;
+        if (maxPoints >= size || maxPoints < MIN_POINTS) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        
+        int[] kept = new int[maxPoints];
+        double bucketWidth = (double) (size - 2) / (maxPoints - 2);
+        int previous = 0;
+        kept[0] = 0;
+        
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            // Average of the following bucket (just the last point for the final one)
+            int nextStart = (int) ((bucket + 1) * bucketWidth) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketWidth) + 1, size);
+            double averageX = (nextStart + nextEnd - 1) / 2.0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageY += values[i];
+            }
+            averageY /= nextEnd - nextStart;
+            
+            // Point of the current bucket with the largest triangle (previous kept, candidate, next average)
+            int start = (int) (bucket * bucketWidth) + 1;
+            int end = (int) ((bucket + 1) * bucketWidth) + 1;
+            double previousY = values[previous];
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previous - averageX) * (values[i] - previousY)
+                        - (previous - i) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            kept[bucket + 1] = chosen;
+            previous = chosen;
+        }
+        
+        kept[maxPoints - 1] = size - 1;
+        return kept;
+    }
+    
+    // Bar chart variant; returns the chart unchanged when maxPoints is null or already satisfied
+    public static List<BarChartDataDto> downsample(List<BarChartDataDto> chart, Integer maxPoints) {
+        validate(maxPoints);
+        if (maxPoints == null || chart.size() <= maxPoints) {
+            return chart;
+        }
+        long[] values = new long[chart.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = chart.get(i).getValue();
+        }
+        int[] kept = selectIndexes(values, maxPoints);
+        List<BarChartDataDto> result = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            result.add(chart.get(index));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.dto.PivotCellDto;
+import com.spring.Suwatha.analytics_module.dto.PivotDimension;
+import com.spring.Suwatha.analytics_module.dto.PivotDto;
+import com.spring.Suwatha.session_module.dto.Gender;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+import com.spring.Suwatha.shared.exception.IllegalStateException;
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cross-tabulates session summaries over two or three dimensions. The grid is counted by a fork/join
+ * task over row ranges of the summary column store; each leaf counts into its own map and the maps
+ * are merged on the way back up, so no counter is shared between threads.
+ */
+@Service
+public class PivotService {
+    
+    // Rows per leaf task; smaller ranges cost more in merging than they gain in parallelism
+    static final int LEAF_ROWS = 64 * 1024;
+    
+    private static final int[] AGE_BAND_LOWER_BOUNDS = {0, 18, 25, 35, 45, 55, 65};
+    private static final String[] AGE_BAND_LABELS = {"0-17", "18-24", "25-34", "35-44", "45-54", "55-64", "65+"};
+    private static final String UNKNOWN = "Unknown";
+    
+    // Each dimension code (+1, so NONE becomes 0) gets 21 bits of the packed cell key
+    private static final int BITS_PER_DIMENSION = 21;
+    private static final long DIMENSION_MASK = (1L << BITS_PER_DIMENSION) - 1;
+    
+    private final SummaryColumnStore summaryColumnStore;
+    private final ReportDimensionService reportDimensionService;
+    
+    public PivotService(SummaryColumnStore summaryColumnStore, ReportDimensionService reportDimensionService) {
+        this.summaryColumnStore = summaryColumnStore;
+        this.reportDimensionService = reportDimensionService;
+    }
+    
+    /**
+     * @param from first session date to include, or null for no lower bound
+     * @param to   last session date to include, or null for no upper bound
+     */
+    public PivotDto pivot(List<PivotDimension> dimensions, LocalDate from, LocalDate to) {
+        if (dimensions.size() < 2 || dimensions.size() > 3) {
+            throw new InvalidAnalyticsQueryException("A pivot needs two or three dimensions.");
+        }
+        if (new HashSet<>(dimensions).size() != dimensions.size()) {
+            throw new InvalidAnalyticsQueryException("Each pivot dimension can only be used once.");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidAnalyticsQueryException("'from' must not be after 'to'.");
+        }
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        
+        PivotDimension[] dims = dimensions.toArray(new PivotDimension[0]);
+        Map<Long, long[]> counts = summaryColumnStore.read(columns ->
+                        ForkJoinPool.commonPool().invoke(new CountTask(columns, dims, fromDay, toDay, 0, columns.size)))
+                .orElseThrow(() -> new IllegalStateException("Analytics data is still loading. Please try again shortly."));
+        return toSparseMatrix(dims, counts);
+    }
+    
+    
+    //------------------------------ Parallel count ------------------------------
+    
+    private static final class CountTask extends RecursiveTask<Map<Long, long[]>> {
+        private final SummaryColumns columns;
+        private final PivotDimension[] dims;
+        private final int fromDay;
+        private final int toDay;
+        private final int start;
+        private final int end;
+        
+        CountTask(SummaryColumns columns, PivotDimension[] dims, int fromDay, int toDay, int start, int end) {
+            this.columns = columns;
+            this.dims = dims;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.start = start;
+            this.end = end;
+        }
+        
+        @Override
+        protected Map<Long, long[]> compute() {
+            if (end - start <= LEAF_ROWS) {
+                return countRange();
+            }
+            int middle = (start + end) >>> 1;
+            CountTask left = new CountTask(columns, dims, fromDay, toDay, start, middle);
+            left.fork();
+            Map<Long, long[]> right = new CountTask(columns, dims, fromDay, toDay, middle, end).compute();
+            return merge(left.join(), right);
+        }
+        
+        private Map<Long, long[]> countRange() {
+            Map<Long, long[]> counts = new HashMap<>();
+            int[] days = columns.days;
+            for (int row = start; row < end; row++) {
+                int day = days[row];
+                if (day == SummaryColumns.NONE || day < fromDay || day > toDay) {
+                    continue;
+                }
+                long key = 0;
+                for (PivotDimension dim : dims) {
+                    key = (key << BITS_PER_DIMENSION) | (code(columns, dim, row) + 1);
+                }
+                counts.computeIfAbsent(key, k -> new long[1])[0]++;
+            }
+            return counts;
+        }
+        
+        private static Map<Long, long[]> merge(Map<Long, long[]> a, Map<Long, long[]> b) {
+            Map<Long, long[]> larger = a.size() >= b.size() ? a : b;
+            Map<Long, long[]> smaller = larger == a ? b : a;
+            smaller.forEach((key, count) -> larger.computeIfAbsent(key, k -> new long[1])[0] += count[0]);
+            return larger;
+        }
+    }
+    
+    private static int code(SummaryColumns columns, PivotDimension dim, int row) {
+        return switch (dim) {
+            case ILLNESS -> columns.illnessIds[row];
+            case CITY -> columns.cityIds[row];
+            case RISK -> columns.risks[row];
+            case GENDER -> columns.genders[row];
+            case AGE_BAND -> ageBand(columns.ages[row]);
+        };
+    }
+    
+    static int ageBand(int age) {
+        if (age == SummaryColumns.NONE) {
+            return SummaryColumns.NONE;
+        }
+        int band = 0;
+        while (band + 1 < AGE_BAND_LOWER_BOUNDS.length && age >= AGE_BAND_LOWER_BOUNDS[band + 1]) {
+            band++;
+        }
+        return band;
+    }
+    
+    
+    //------------------------------ Result ------------------------------
+    
+    private PivotDto toSparseMatrix(PivotDimension[] dims, Map<Long, long[]> counts) {
+        // Decode the codes used on each axis and give them label indexes in display order
+        List<Map<Integer, Integer>> indexByCode = new ArrayList<>();
+        List<List<String>> labels = new ArrayList<>();
+        for (int d = 0; d < dims.length; d++) {
+            int shift = (dims.length - 1 - d) * BITS_PER_DIMENSION;
+            Set<Integer> codes = new HashSet<>();
+            counts.keySet().forEach(key -> codes.add((int) ((key >>> shift) & DIMENSION_MASK) - 1));
+            
+            PivotDimension dim = dims[d];
+            List<Integer> ordered = new ArrayList<>(codes);
+            ordered.sort(dim == PivotDimension.CITY || dim == PivotDimension.ILLNESS
+                    ? Comparator.comparing((Integer code) -> code == SummaryColumns.NONE ? 1 : 0)
+                            .thenComparing(code -> label(dim, code).toLowerCase())
+                    : Comparator.comparing((Integer code) -> code == SummaryColumns.NONE ? Integer.MAX_VALUE : code));
+            
+            Map<Integer, Integer> index = new HashMap<>();
+            List<String> axis = new ArrayList<>();
+            for (Integer code : ordered) {
+                index.put(code, axis.size());
+                axis.add(label(dim, code));
+            }
+            indexByCode.add(index);
+            labels.add(axis);
+        }
+        
+        List<PivotCellDto> cells = new ArrayList<>(counts.size());
+        long total = 0;
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            int[] coordinates = new int[dims.length];
+            for (int d = 0; d < dims.length; d++) {
+                int shift = (dims.length - 1 - d) * BITS_PER_DIMENSION;
+                int code = (int) ((entry.getKey() >>> shift) & DIMENSION_MASK) - 1;
+                coordinates[d] = indexByCode.get(d).get(code);
+            }
+            cells.add(new PivotCellDto(coordinates, entry.getValue()[0]));
+            total += entry.getValue()[0];
+        }
+        cells.sort(Comparator.comparingLong(PivotCellDto::getCount).reversed());
+        
+        List<String> names = new ArrayList<>();
+        for (PivotDimension dim : dims) {
+            names.add(dim.getParam());
+        }
+        return new PivotDto(names, labels, cells, total);
+    }
+    
+    private String label(PivotDimension dim, int code) {
+        if (code == SummaryColumns.NONE) {
+            return UNKNOWN;
+        }
+        String label = switch (dim) {
+            case ILLNESS -> reportDimensionService.getIllnessName((long) code);
+            case CITY -> reportDimensionService.getCityName((long) code);
+            case RISK -> RiskAssessment.values()[code].name();
+            case GENDER -> Gender.values()[code].name();
+            case AGE_BAND -> AGE_BAND_LABELS[code];
+        };
+        return label != null ? label : UNKNOWN;
+    }
+}
@@ -0,0 +1,201 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.entity.CityDimension;
+import com.spring.Suwatha.analytics_module.entity.IllnessDimension;
+import com.spring.Suwatha.analytics_module.repository.CityDimensionRepository;
+import com.spring.Suwatha.analytics_module.repository.IllnessDimensionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Dictionary encoding of the free-text city and illness entered in session summaries. Summaries point to
+ * {@code dim_city}/{@code dim_illness} rows by integer id, so report filters compare indexed ids, and both
+ * dimensions are cached in memory for the filter dropdowns and the filter lookups.
+ */
+@Service
+public class ReportDimensionService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReportDimensionService.class);
+    
+    private final CityDimensionRepository cityRepository;
+    private final IllnessDimensionRepository illnessRepository;
+    private final Dictionary cities = new Dictionary();
+    private final Dictionary illnesses = new Dictionary();
+    
+    public ReportDimensionService(CityDimensionRepository cityRepository, IllnessDimensionRepository illnessRepository) {
+        this.cityRepository = cityRepository;
+        this.illnessRepository = illnessRepository;
+    }
+    
+    /**
+     * Canonical form used for matching: whitespace runs collapsed, trimmed, lower-cased.
+     * Must stay in step with the backfill SQL in the dimension repositories.
+     * @return the key, or null for a blank value
+     */
+    public static String canonicalKey(String raw) {
+        String name = displayName(raw);
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+    
+    private static String displayName(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String name = raw.replaceAll("\\s+", " ").trim();
+        return name.isEmpty() ? null : name;
+    }
+    
+    
+    //------------------------------ Write path (session summaries) ------------------------------
+    
+    // Must run inside the summary's transaction; returns null for a blank city
+    public CityDimension resolveCity(String raw) {
+        Long id = cities.resolve(raw,
+                cityRepository::insertIfAbsent,
+                key -> cityRepository.findLatestByNameKey(key).map(city -> new Entry(city.getId(), city.getName())));
+        return id == null ? null : cityRepository.getReferenceById(id);
+    }
+    
+    public IllnessDimension resolveIllness(String raw) {
+        Long id = illnesses.resolve(raw,
+                illnessRepository::insertIfAbsent,
+                key -> illnessRepository.findLatestByNameKey(key).map(illness -> new Entry(illness.getId(), illness.getName())));
+        return id == null ? null : illnessRepository.getReferenceById(id);
+    }
+    
+    
+    //------------------------------ Read path (filters) ------------------------------
+    
+    // Empty when no summary ever used this city, i.e. a filter on it matches nothing
+    public Optional<Long> findCityId(String raw) {
+        return cities.find(canonicalKey(raw),
+                key -> cityRepository.findByNameKey(key).map(city -> new Entry(city.getId(), city.getName())));
+    }
+    
+    public Optional<Long> findIllnessId(String raw) {
+        return illnesses.find(canonicalKey(raw),
+                key -> illnessRepository.findByNameKey(key).map(illness -> new Entry(illness.getId(), illness.getName())));
+    }
+    
+    public List<String> getCityNames() {
+        return cities.names();
+    }
+    
+    public List<String> getIllnessNames() {
+        return illnesses.names();
+    }
+    
+    public String getCityName(Long id) {
+        return id == null ? null : cities.namesById.get(id);
+    }
+    
+    public String getIllnessName(Long id) {
+        return id == null ? null : illnesses.namesById.get(id);
+    }
+    
+    
+    //------------------------------ Startup ------------------------------
+    
+    /**
+     * Creates dimension rows for summaries written before the dimensions existed, links those summaries,
+     * then loads both dimensions into memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // before the listeners that load summaries by dimension id
+    @Transactional
+    public void backfillAndLoad() {
+        int newCities = cityRepository.insertMissingFromSummaries();
+        int linkedByCity = cityRepository.linkSummaries();
+        int newIllnesses = illnessRepository.insertMissingFromSummaries();
+        int linkedByIllness = illnessRepository.linkSummaries();
+        if (linkedByCity > 0 || linkedByIllness > 0) {
+            log.info("Backfilled {} city and {} illness dimension(s); linked {} and {} summaries",
+                    newCities, newIllnesses, linkedByCity, linkedByIllness);
+        }
+        
+        cityRepository.findAll().forEach(city -> cities.put(city.getNameKey(), new Entry(city.getId(), city.getName())));
+        illnessRepository.findAll().forEach(illness -> illnesses.put(illness.getNameKey(), new Entry(illness.getId(), illness.getName())));
+    }
+    
+    
+    private record Entry(Long id, String name) {
+    }
+    
+    /**
+     * Key -> id cache of one dimension table. Rows created by the current transaction are only cached once
+     * it commits, so a rollback can never leave an id in memory that the database doesn't have.
+     */
+    private static final class Dictionary {
+        private final Map<String, Long> idsByKey = new ConcurrentHashMap<>();
+        private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+        
+        Long resolve(String raw, BiFunction<String, String, Integer> insertIfAbsent, Function<String, Optional<Entry>> lookup) {
+            String name = displayName(raw);
+            if (name == null) {
+                return null;
+            }
+            String key = name.toLowerCase(Locale.ROOT);
+            Long cached = idsByKey.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            boolean inserted = insertIfAbsent.apply(name, key) > 0;
+            Entry entry = lookup.apply(key)
+                    .orElseThrow(() -> new java.lang.IllegalStateException("Dimension row for '" + key + "' vanished after insert"));
+            if (inserted && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(key, entry);
+                    }
+                });
+            } else {
+                put(key, entry);
+            }
+            return entry.id();
+        }
+        
+        Optional<Long> find(String key, Function<String, Optional<Entry>> lookup) {
+            if (key == null) {
+                return Optional.empty();
+            }
+            Long cached = idsByKey.get(key);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            // Created by another instance, or by a transaction that committed after we loaded
+            Optional<Entry> entry = lookup.apply(key);
+            entry.ifPresent(found -> put(key, found));
+            return entry.map(Entry::id);
+        }
+        
+        void put(String key, Entry entry) {
+            idsByKey.put(key, entry.id());
+            namesById.put(entry.id(), entry.name());
+        }
+        
+        List<String> names() {
+            return namesById.values().stream()
+                    .sorted(Comparator.comparing(name -> name.toLowerCase(Locale.ROOT)))
+                    .toList();
+        }
+    }
+}
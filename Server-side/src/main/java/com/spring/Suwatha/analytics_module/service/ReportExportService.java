@@ -0,0 +1,108 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.Suwatha.analytics_module.dto.reportDto.ReportExportRow;
+import com.spring.Suwatha.analytics_module.repository.ReportQueryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes filtered reports straight from a streaming JDBC result set to the HTTP response,
+ * one row at a time, so heap use does not grow with the size of the export.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportExportService {
+    
+    public enum Format { CSV, NDJSON }
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String CSV_HEADER = "sessionId,startTime,patientHandle,therapistName,communicationType,"
+            + "durationInMinutes,illness,city,gender,age,riskAssessment";
+    
+    private final ReportQueryRepository reportQueryRepository;
+    private final ObjectMapper objectMapper;
+    
+    public ReportExportService(ReportQueryRepository reportQueryRepository, ObjectMapper objectMapper) {
+        this.reportQueryRepository = reportQueryRepository;
+        this.objectMapper = objectMapper;
+    }
+    
+    public void exportReports(String searchTerm, String month, String city, String illness, String risk, Integer age,
+                              Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        try (Stream<ReportExportRow> rows = reportQueryRepository.streamReportsForExport(searchTerm, month, city, illness, risk, age)) {
+            Iterator<ReportExportRow> iterator = rows.iterator();
+            long written = 0;
+            while (iterator.hasNext()) {
+                ReportExportRow row = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                // Push bytes to the client regularly instead of buffering the whole export
+                if (++written % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeCsvRow(Writer writer, ReportExportRow row) throws IOException {
+        writer.write(csv(row.getSessionId()));
+        writer.write(',');
+        writer.write(csv(row.getStartTime()));
+        writer.write(',');
+        writer.write(csv(row.getPatientHandle()));
+        writer.write(',');
+        writer.write(csv(row.getTherapistName()));
+        writer.write(',');
+        writer.write(csv(row.getCommunicationType()));
+        writer.write(',');
+        writer.write(csv(row.getDurationInMinutes()));
+        writer.write(',');
+        writer.write(csv(row.getIllness()));
+        writer.write(',');
+        writer.write(csv(row.getCity()));
+        writer.write(',');
+        writer.write(csv(row.getGender()));
+        writer.write(',');
+        writer.write(csv(row.getAge()));
+        writer.write(',');
+        writer.write(csv(row.getRiskAssessment()));
+        writer.write('\n');
+    }
+    
+    // RFC 4180 quoting; a leading formula character is neutralised so spreadsheets don't evaluate it
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !(value instanceof Number)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,6 +1,7 @@
 package com.spring.Suwatha.analytics_module.service;
 
 import com.spring.Suwatha.analytics_module.dto.reportDto.*;
+import com.spring.Suwatha.analytics_module.repository.ReportCursor;
 import com.spring.Suwatha.analytics_module.repository.ReportQueryRepository;
 import com.spring.Suwatha.session_module.dto.RiskAssessment;
 import com.spring.Suwatha.session_module.entity.SessionSummary;
@@ -13,18 +14,31 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class ReportService {
     
+    // Cached filtered totals for cursor paging; dropped whenever a new summary is written
+    static final String REPORT_TOTAL_CACHE_KEY = "report-total";
+    
     private final SessionSummaryRepository summaryRepository;
     private final ReportQueryRepository reportQueryRepository; // *** INJECT NEW REPO ***
+    private final ChartCache chartCache;
+    private final ReportDimensionService reportDimensionService;
+    private final SummaryColumnStore summaryColumnStore;
+    private final DashboardCounters dashboardCounters;
     
-    public ReportService(SessionSummaryRepository summaryRepository, ReportQueryRepository reportQueryRepository) {
+    public ReportService(SessionSummaryRepository summaryRepository, ReportQueryRepository reportQueryRepository, ChartCache chartCache,
+                         ReportDimensionService reportDimensionService, SummaryColumnStore summaryColumnStore, DashboardCounters dashboardCounters) {
         this.summaryRepository = summaryRepository;
         this.reportQueryRepository = reportQueryRepository;
+        this.chartCache = chartCache;
+        this.reportDimensionService = reportDimensionService;
+        this.summaryColumnStore = summaryColumnStore;
+        this.dashboardCounters = dashboardCounters;
     }
     
 //    public ReportPageDto getReports(Pageable pageable) {
@@ -43,8 +57,9 @@ public class ReportService {
 //    }
     
     public ReportFiltersDto getReportFilters() {
-        List<String> cities = summaryRepository.findDistinctCities();
-        List<String> illnesses = summaryRepository.findDistinctIllnesses();
+        // Served from the in-memory dimension dictionaries
+        List<String> cities = reportDimensionService.getCityNames();
+        List<String> illnesses = reportDimensionService.getIllnessNames();
         List<String> riskAssessments = Arrays.stream(RiskAssessment.values())
                 .map(Enum::name)
                 .collect(Collectors.toList());
@@ -95,20 +110,75 @@ public class ReportService {
             String illness, String risk, Integer age,
             Pageable pageable) {
         
-        // Use the new repository for the filtered data
+        // Without a search term the column store answers the summary, and its count replaces the count query
+        Optional<ReportSummaryDto> fromStore = summarizeFromColumnStore(searchTerm, month, city, illness, risk, age);
         Page<SessionSummary> summaryPage = reportQueryRepository.findReportsWithFilters(
-                searchTerm, month, city, illness, risk, age, pageable);
+                searchTerm, month, city, illness, risk, age, pageable,
+                fromStore.map(ReportSummaryDto::getTotalReports).orElse(null));
         
         List<ReportListViewDto> reports = summaryPage.getContent().stream()
                 .map(this::convertToReportListViewDto)
                 .collect(Collectors.toList());
         
         PaginationDto pagination = PaginationDto.fromPage(summaryPage);
-        // Use the new repository for the filtered summary
-        ReportSummaryDto summary = reportQueryRepository.getSummaryStatisticsWithFilters(
-                searchTerm, month, city, illness, risk, age);
+        ReportSummaryDto summary = fromStore.orElseGet(() -> reportQueryRepository.getSummaryStatisticsWithFilters(
+                searchTerm, month, city, illness, risk, age));
+        
+        return new ReportPageDto(reports, pagination, summary, null);
+    }
+    
+    
+    /**
+     * Cursor (keyset) paging over the same filters. The filter summary is only computed for the first
+     * page, and the total count only when asked for; the total is cached briefly per filter combination.
+     */
+    public ReportPageDto getReportsAfterCursor(
+            String searchTerm, String month, String city,
+            String illness, String risk, Integer age,
+            String cursor, int pageSize, boolean ascending, boolean includeTotal) {
+        
+        boolean firstPage = cursor == null || cursor.isBlank();
+        ReportSlice slice = reportQueryRepository.findReportsAfter(
+                searchTerm, month, city, illness, risk, age,
+                firstPage ? null : ReportCursor.decode(cursor), pageSize, ascending);
         
-        return new ReportPageDto(reports, pagination, summary);
+        List<ReportListViewDto> reports = slice.getContent().stream()
+                .map(this::convertToReportListViewDto)
+                .collect(Collectors.toList());
+        
+        Optional<ReportSummaryDto> fromStore = firstPage || includeTotal
+                ? summarizeFromColumnStore(searchTerm, month, city, illness, risk, age)
+                : Optional.empty();
+        
+        PaginationDto pagination = null;
+        if (includeTotal && fromStore.isPresent()) {
+            long total = fromStore.get().getTotalReports();
+            pagination = new PaginationDto(0, (int) Math.ceil((double) total / pageSize), total, pageSize);
+        } else if (includeTotal) {
+            String totalKey = REPORT_TOTAL_CACHE_KEY + ":" + String.join("|",
+                    String.valueOf(searchTerm), String.valueOf(month), String.valueOf(city),
+                    String.valueOf(illness), String.valueOf(risk), String.valueOf(age));
+            long total = chartCache.get(totalKey,
+                    () -> reportQueryRepository.countReportsWithFilters(searchTerm, month, city, illness, risk, age));
+            pagination = new PaginationDto(0, (int) Math.ceil((double) total / pageSize), total, pageSize);
+        }
+        
+        ReportSummaryDto summary = firstPage
+                ? fromStore.orElseGet(() -> reportQueryRepository.getSummaryStatisticsWithFilters(searchTerm, month, city, illness, risk, age))
+                : null;
+        
+        return new ReportPageDto(reports, pagination, summary, slice.getNextCursor());
+    }
+    
+    // The column store has no therapist names or patient handles, so searches always go to SQL
+    private Optional<ReportSummaryDto> summarizeFromColumnStore(String searchTerm, String month, String city,
+                                                                String illness, String risk, Integer age) {
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            return Optional.empty();
+        }
+        return summaryColumnStore.summarize(month, city, illness, risk, age)
+                .map(stats -> new ReportSummaryDto(stats.count(), stats.distinctPatients(),
+                        dashboardCounters.activeTherapistCount(), stats.averageDuration()));
     }
 
 }
@@ -0,0 +1,113 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.repository.SessionRollupRepository;
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import com.spring.Suwatha.session_module.event.SessionCancelledEvent;
+import com.spring.Suwatha.session_module.event.SessionEndedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps {@code session_rollup} in step with the sessions table. The listeners are synchronous, so each
+ * bucket update commits or rolls back together with the session write that caused it.
+ */
+@Service
+public class SessionRollupService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionRollupService.class);
+    
+    private final SessionRollupRepository rollupRepository;
+    private final ChartCache chartCache;
+    private final TransactionTemplate transaction;
+    
+    public SessionRollupService(SessionRollupRepository rollupRepository, ChartCache chartCache, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.chartCache = chartCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+    
+    
+    //------------------------------ Incremental maintenance ------------------------------
+    
+    @EventListener
+    public void onSessionStarted(SessionStartedEvent event) {
+        add(event.getStartTime(), event.getCommunicationType(), SessionStatus.ACTIVE, 1);
+    }
+    
+    @EventListener
+    public void onSessionEnded(SessionEndedEvent event) {
+        move(event.getStartTime(), event.getCommunicationType(), SessionStatus.ACTIVE, SessionStatus.COMPLETED);
+    }
+    
+    @EventListener
+    public void onSessionCancelled(SessionCancelledEvent event) {
+        move(event.getStartTime(), event.getCommunicationType(), event.getPreviousStatus(), SessionStatus.CANCELLED);
+    }
+    
+    // Buckets are keyed by start time, so a status change moves one unit between sibling buckets
+    private void move(LocalDateTime startTime, CommunicationType type, SessionStatus from, SessionStatus to) {
+        add(startTime, type, from, -1);
+        add(startTime, type, to, 1);
+    }
+    
+    private void add(LocalDateTime startTime, CommunicationType type, SessionStatus status, long delta) {
+        if (startTime == null) {
+            return;
+        }
+        rollupRepository.addToBucket(startTime.toLocalDate(), startTime.getHour(), type.name(), status.name(), delta);
+    }
+    
+    
+    //------------------------------ Backfill ------------------------------
+    
+    // Runs during context startup, before the web server and schedulers take work, so no session
+    // write can land between the emptiness check and the INSERT ... SELECT
+    @PostConstruct
+    public void backfillIfEmpty() {
+        transaction.executeWithoutResult(status -> {
+            if (rollupRepository.count() == 0) {
+                int buckets = rollupRepository.backfillFromSessions();
+                log.info("Backfilled session_rollup with {} bucket(s)", buckets);
+            }
+        });
+    }
+    
+    /**
+     * Recomputes every bucket from {@code sessions}. Sessions written while the rebuild runs may be
+     * counted twice or missed, so run it during a quiet period.
+     */
+    @Transactional
+    public int rebuild() {
+        rollupRepository.deleteAllBuckets();
+        int buckets = rollupRepository.backfillFromSessions();
+        invalidateChartsAfterCommit();
+        return buckets;
+    }
+    
+    // Invalidating before commit would let a concurrent read re-cache the old buckets
+    private void invalidateChartsAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chartCache.invalidateAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chartCache.invalidateAll();
+            }
+        });
+    }
+}
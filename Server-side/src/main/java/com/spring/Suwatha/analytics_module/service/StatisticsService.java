@@ -2,15 +2,14 @@ package com.spring.Suwatha.analytics_module.service;
 
 
 import com.spring.Suwatha.analytics_module.dto.BarChartDataDto;
+import com.spring.Suwatha.analytics_module.dto.ChartCacheStatsDto;
 import com.spring.Suwatha.analytics_module.dto.PieChartSliceDto;
 import com.spring.Suwatha.analytics_module.dto.StatisticsDto;
 import com.spring.Suwatha.analytics_module.projection.IDailySessionCountProjection;
 import com.spring.Suwatha.analytics_module.projection.IHourlyUsageProjection;
 import com.spring.Suwatha.analytics_module.projection.IIllnessCountProjection;
-import com.spring.Suwatha.analytics_module.projection.IStatisticsProjection;
-import com.spring.Suwatha.session_module.repo.SessionRepository;
+import com.spring.Suwatha.analytics_module.repository.SessionRollupRepository;
 import com.spring.Suwatha.session_module.repo.SessionSummaryRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -23,40 +22,37 @@ import java.util.stream.Stream;
 @Service
 public class StatisticsService {
     
-    private final SessionRepository sessionRepository;
+    // Chart cache keys; ChartCacheInvalidator drops them by prefix
+    static final String ILLNESS_DISTRIBUTION_CHART = "illness-distribution";
+    static final String HOURLY_USAGE_CHART = "peak-usage-hourly";
+    static final String DAILY_VOLUME_CHART = "daily-session-volume";
+    
     private final SessionSummaryRepository summaryRepository;
+    private final DashboardCounters dashboardCounters;
+    private final SessionRollupRepository rollupRepository;
+    private final ChartCache chartCache;
     
-    public StatisticsService(SessionRepository sessionRepository,SessionSummaryRepository summaryRepository) {
-        this.sessionRepository = sessionRepository;
+    public StatisticsService(SessionSummaryRepository summaryRepository, DashboardCounters dashboardCounters, SessionRollupRepository rollupRepository,
+                             ChartCache chartCache) {
         this.summaryRepository = summaryRepository;
+        this.dashboardCounters = dashboardCounters;
+        this.rollupRepository = rollupRepository;
+        this.chartCache = chartCache;
     }
     
-    @Transactional// This is a read-only operation, which can be a performance optimization
+    // Served from event-maintained in-memory counters; no database round trip
     public StatisticsDto getDashboardStatistics() {
-        IStatisticsProjection projection = sessionRepository.getDashboardStatistics();
-        StatisticsDto dto = new StatisticsDto();
-        System.out.println(projection.getTotalTherapists());
-        
-        // Map from the projection to the DTO, providing default values for nulls
-        dto.setActiveSessions(Optional.ofNullable(projection.getActiveSessions()).orElse(0));
-        dto.setTotalSessions(Optional.ofNullable(projection.getTotalSessions()).orElse(0L));
-        dto.setFinishedSessions(Optional.ofNullable(projection.getFinishedSessions()).orElse(0L));
-        dto.setSessionsToday(Optional.ofNullable(projection.getSessionsToday()).orElse(0L));
-        dto.setTherapistsAvailable(Optional.ofNullable(projection.getTherapistsAvailable()).orElse(0L));
-        dto.setTotalTherapists(Optional.ofNullable(projection.getTotalTherapists()).orElse(0L));
-        dto.setBusyTherapists(Optional.ofNullable(projection.getBusyTherapists()).orElse(0L));
-        dto.setOfflineTherapists(Optional.ofNullable(projection.getOfflineTherapists()).orElse(0L));
-        
-        // Average rating can be null if no feedback has been submitted yet. Default to 0.0.
-        dto.setAverageSessionRating(Optional.ofNullable(projection.getAverageSessionRating()).orElse(0.0));
-        
-        return dto;
+        return dashboardCounters.snapshot();
     }
     
     
     //-------------------------------- get Illness Distribution PieChart -----------------------------------------------------
     
     public List<PieChartSliceDto> getIllnessDistributionPieChart() {
+        return chartCache.get(ILLNESS_DISTRIBUTION_CHART, this::loadIllnessDistributionPieChart);
+    }
+    
+    private List<PieChartSliceDto> loadIllnessDistributionPieChart() {
         // A predefined list of aesthetically pleasing colors for the chart.
         final List<String> PIE_CHART_COLORS = Arrays.asList(
                 "#2563eb", "#7c3aed", "#dc2626", "#059669",
@@ -79,14 +75,18 @@ public class StatisticsService {
             colorIndex++;
         }
         
-        return pieChartData;
+        return List.copyOf(pieChartData);
     }
     
     
     // ------------------------------------------------- get Peak Usage Hourly Bar Chart -------------------------------------
     public List<BarChartDataDto> getPeakUsageHourlyBarChart() {
-        // 1. Fetch the raw data from the database. This might have gaps (e.g., no entry for 3 AM).
-        List<IHourlyUsageProjection> hourlyUsage = sessionRepository.getHourlyUsage();
+        return chartCache.get(HOURLY_USAGE_CHART, this::loadPeakUsageHourlyBarChart);
+    }
+    
+    private List<BarChartDataDto> loadPeakUsageHourlyBarChart() {
+        // 1. Fetch the pre-aggregated hourly counts. This might have gaps (e.g., no entry for 3 AM).
+        List<IHourlyUsageProjection> hourlyUsage = rollupRepository.getHourlyUsage();
     
         // 2. Convert the list into a Map for easy lookups (Hour -> Count).
         //    Example: { 14: 25, 15: 30, 19: 18 }
@@ -101,19 +101,24 @@ public class StatisticsService {
                     long value = usageMap.getOrDefault(hour, 0L); // Get value from map or default to 0
                     return new BarChartDataDto(label, value);
                 })
-                .collect(Collectors.toList());
+                .toList();
     }
     
     
     
     // ---------------------------------------------- get Daily Session Volume Bar Chart -----------------------------------
     public List<BarChartDataDto> getDailySessionVolumeBarChart() {
+        // The window moves at midnight, so the date is part of the key
+        return chartCache.get(DAILY_VOLUME_CHART + ":" + LocalDate.now(), this::loadDailySessionVolumeBarChart);
+    }
+    
+    private List<BarChartDataDto> loadDailySessionVolumeBarChart() {
         // 1. Define the date range: today and 13 days ago (for a total of 14 days).
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(13);
     
-        // 2. Fetch the raw session counts from the database within this date range.
-        List<IDailySessionCountProjection> dailyCounts = sessionRepository.getDailySessionCountsSince(startDate);
+        // 2. Fetch the pre-aggregated session counts within this date range.
+        List<IDailySessionCountProjection> dailyCounts = rollupRepository.getDailySessionCountsSince(startDate);
     
         // 3. Convert the list into a Map for easy lookups (LocalDate -> Count).
         Map<LocalDate, Long> countsMap = dailyCounts.stream()
@@ -135,7 +140,11 @@ public class StatisticsService {
                     long value = countsMap.getOrDefault(date, 0L);
                     return new BarChartDataDto(label, value);
                 })
-                .collect(Collectors.toList());
+                .toList();
+    }
+    
+    public ChartCacheStatsDto getChartCacheStats() {
+        return chartCache.getStats();
     }
     
     
@@ -0,0 +1,220 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.repository.SummaryFact;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+import com.spring.Suwatha.session_module.event.SessionSummaryCreatedEvent;
+import com.spring.Suwatha.session_module.repo.SessionSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory analytics store over session summaries. Loaded once at startup and appended to after each
+ * summary commits, it answers the report filter statistics (count, distinct patients, average duration)
+ * by intersecting per-value bitmaps instead of running join + aggregate queries.
+ * Until the initial load has finished, {@link #summarize} returns empty and callers use SQL.
+ * A periodic reconciliation reloads the store when its row count no longer matches the table
+ * (summaries written by another instance, or a listener that failed).
+ */
+@Service
+public class SummaryColumnStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(SummaryColumnStore.class);
+    
+    private final SessionSummaryRepository summaryRepository;
+    private final ReportDimensionService reportDimensionService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Null until loaded; summaries committed during a (re)load are parked in pending and replayed
+    private SummaryColumns columns;
+    private boolean loading = true;
+    private final List<SummaryFact> pending = new ArrayList<>();
+    
+    public SummaryColumnStore(SessionSummaryRepository summaryRepository, ReportDimensionService reportDimensionService,
+                              PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.reportDimensionService = reportDimensionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    public record SummaryStats(long count, long distinctPatients, double averageDuration) {
+    }
+    
+    
+    //------------------------------ Query ------------------------------
+    
+    /**
+     * Same filter semantics as ReportQueryRepository: invalid month or risk values are ignored,
+     * an unknown city or illness matches nothing.
+     */
+    public Optional<SummaryStats> summarize(String month, String city, String illness, String risk, Integer age) {
+        Integer monthKey = null;
+        if (month != null && !month.isBlank()) {
+            try {
+                monthKey = SummaryColumns.monthKey(YearMonth.parse(month));
+            } catch (DateTimeParseException e) { /* Ignore invalid month format */ }
+        }
+        Integer riskOrdinal = null;
+        if (risk != null && !risk.isBlank()) {
+            try {
+                riskOrdinal = RiskAssessment.valueOf(risk.toUpperCase()).ordinal();
+            } catch (IllegalArgumentException e) { /* Ignore invalid risk string */ }
+        }
+        Integer cityId = null;
+        if (city != null && !city.isBlank()) {
+            Optional<Long> id = reportDimensionService.findCityId(city);
+            if (id.isEmpty()) {
+                return isLoaded() ? Optional.of(new SummaryStats(0, 0, 0.0)) : Optional.empty();
+            }
+            cityId = Math.toIntExact(id.get());
+        }
+        Integer illnessId = null;
+        if (illness != null && !illness.isBlank()) {
+            Optional<Long> id = reportDimensionService.findIllnessId(illness);
+            if (id.isEmpty()) {
+                return isLoaded() ? Optional.of(new SummaryStats(0, 0, 0.0)) : Optional.empty();
+            }
+            illnessId = Math.toIntExact(id.get());
+        }
+        
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                return Optional.empty();
+            }
+            BitSet rows = columns.select(monthKey, cityId, illnessId, riskOrdinal, age);
+            return Optional.of(new SummaryStats(rows.cardinality(), columns.countDistinctPatients(rows), columns.averageDuration(rows)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Runs the reader under the read lock; empty until the initial load has finished
+    <T> Optional<T> read(Function<SummaryColumns, T> reader) {
+        lock.readLock().lock();
+        try {
+            return columns == null ? Optional.empty() : Optional.of(reader.apply(columns));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return columns != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    
+    //------------------------------ Maintenance ------------------------------
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSummaryCreated(SessionSummaryCreatedEvent event) {
+        SummaryFact fact = new SummaryFact(event.getSessionId(), event.getSessionStartTime(), event.getPatientId(),
+                event.getTherapistId(), event.getCityId(), event.getIllnessId(), event.getRiskAssessment(),
+                event.getAge(), event.getGender(), event.getDurationInMinutes());
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                columns.append(fact);
+            }
+            if (loading) {
+                pending.add(fact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Runs after ReportDimensionService has linked older summaries to their dimensions
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::load, "summary-column-store-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    /**
+     * Reloads the store if it holds a different number of summaries than {@code session_summary}.
+     * Summaries are never deleted, so a matching count means nothing was missed. A summary whose
+     * listener has not run yet can trigger a harmless extra reload.
+     */
+    @Scheduled(initialDelayString = "${analytics.summary-store.reconcile-interval-ms:600000}",
+               fixedDelayString = "${analytics.summary-store.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Optional<Integer> stored = read(loaded -> loaded.size);
+        if (stored.isEmpty()) {
+            return;
+        }
+        long persisted = summaryRepository.count();
+        if (persisted != stored.get()) {
+            log.info("Summary column store holds {} of {} summaries; reloading", stored.get(), persisted);
+            load();
+        }
+    }
+    
+    private void load() {
+        try {
+            long start = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                loading = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            SummaryColumns loaded = new SummaryColumns();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<SummaryFact> facts = summaryRepository.streamAllFacts()) {
+                    facts.forEach(loaded::append);
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                // append skips summaries the stream already returned
+                pending.forEach(loaded::append);
+                pending.clear();
+                loading = false;
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Summary column store loaded {} summaries in {} ms", loaded.size, System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                // A failed reload keeps serving the previous columns
+                if (columns != null) {
+                    loading = false;
+                    pending.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Failed to load the summary column store; report statistics will use SQL", ex);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.repository.SummaryFact;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of the session summary facts: one primitive array per attribute, indexed by row,
+ * plus a bitmap of matching rows per distinct filter value. Not thread-safe; {@link SummaryColumnStore}
+ * guards it with a read/write lock.
+ */
+final class SummaryColumns {
+    
+    // Stored for a missing city, illness, age or gender
+    static final int NONE = -1;
+    
+    int size;
+    long[] summaryIds = new long[1024];
+    int[] patientIds = new int[1024];
+    int[] therapistIds = new int[1024];
+    int[] days = new int[1024];          // epoch day of the session start
+    int[] months = new int[1024];        // year * 12 + month - 1
+    int[] cityIds = new int[1024];
+    int[] illnessIds = new int[1024];
+    byte[] risks = new byte[1024];
+    byte[] genders = new byte[1024];
+    short[] ages = new short[1024];
+    int[] durations = new int[1024];
+    
+    final Map<Integer, BitSet> rowsByMonth = new HashMap<>();
+    final Map<Integer, BitSet> rowsByCity = new HashMap<>();
+    final Map<Integer, BitSet> rowsByIllness = new HashMap<>();
+    final Map<Integer, BitSet> rowsByRisk = new HashMap<>();
+    final Map<Integer, BitSet> rowsByAge = new HashMap<>();
+    final Map<Integer, BitSet> rowsByGender = new HashMap<>();
+    
+    // Summary ids already stored; a summary written while the store was loading may arrive twice
+    private final BitSet storedSummaryIds = new BitSet();
+    
+    static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+    
+    /**
+     * @return false if the summary was already stored
+     */
+    boolean append(SummaryFact fact) {
+        int summaryId = Math.toIntExact(fact.summaryId());
+        if (storedSummaryIds.get(summaryId)) {
+            return false;
+        }
+        storedSummaryIds.set(summaryId);
+        if (size == summaryIds.length) {
+            grow();
+        }
+        int row = size++;
+        LocalDateTime start = fact.sessionStartTime();
+        summaryIds[row] = fact.summaryId();
+        patientIds[row] = Math.toIntExact(fact.patientId());
+        therapistIds[row] = Math.toIntExact(fact.therapistId());
+        days[row] = start != null ? (int) start.toLocalDate().toEpochDay() : NONE;
+        months[row] = start != null ? monthKey(YearMonth.from(start)) : NONE;
+        cityIds[row] = fact.cityId() != null ? Math.toIntExact(fact.cityId()) : NONE;
+        illnessIds[row] = fact.illnessId() != null ? Math.toIntExact(fact.illnessId()) : NONE;
+        risks[row] = (byte) (fact.riskAssessment() != null ? fact.riskAssessment().ordinal() : NONE);
+        genders[row] = (byte) (fact.gender() != null ? fact.gender().ordinal() : NONE);
+        ages[row] = (short) (fact.age() != null ? fact.age() : NONE);
+        durations[row] = fact.durationInMinutes() != null ? fact.durationInMinutes() : 0;
+        
+        index(rowsByMonth, months[row], row);
+        index(rowsByCity, cityIds[row], row);
+        index(rowsByIllness, illnessIds[row], row);
+        index(rowsByRisk, risks[row], row);
+        index(rowsByAge, ages[row], row);
+        index(rowsByGender, genders[row], row);
+        return true;
+    }
+    
+    private static void index(Map<Integer, BitSet> bitmaps, int value, int row) {
+        if (value != NONE) {
+            bitmaps.computeIfAbsent(value, v -> new BitSet()).set(row);
+        }
+    }
+    
+    private void grow() {
+        int capacity = summaryIds.length * 2;
+        summaryIds = Arrays.copyOf(summaryIds, capacity);
+        patientIds = Arrays.copyOf(patientIds, capacity);
+        therapistIds = Arrays.copyOf(therapistIds, capacity);
+        days = Arrays.copyOf(days, capacity);
+        months = Arrays.copyOf(months, capacity);
+        cityIds = Arrays.copyOf(cityIds, capacity);
+        illnessIds = Arrays.copyOf(illnessIds, capacity);
+        risks = Arrays.copyOf(risks, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+    }
+    
+    
+    //------------------------------ Query ------------------------------
+    
+    /**
+     * Intersects the bitmaps of the given values; a null value means "no filter on this attribute".
+     * @return the matching rows (a fresh BitSet the caller may modify)
+     */
+    BitSet select(Integer month, Integer cityId, Integer illnessId, Integer risk, Integer age) {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        and(rows, rowsByMonth, month);
+        and(rows, rowsByCity, cityId);
+        and(rows, rowsByIllness, illnessId);
+        and(rows, rowsByRisk, risk);
+        and(rows, rowsByAge, age);
+        return rows;
+    }
+    
+    private static void and(BitSet rows, Map<Integer, BitSet> bitmaps, Integer value) {
+        if (value == null || rows.isEmpty()) {
+            return;
+        }
+        BitSet matching = bitmaps.get(value);
+        if (matching == null) {
+            rows.clear();
+        } else {
+            rows.and(matching);
+        }
+    }
+    
+    long countDistinctPatients(BitSet rows) {
+        BitSet patients = new BitSet();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            patients.set(patientIds[row]);
+        }
+        return patients.cardinality();
+    }
+    
+    double averageDuration(BitSet rows) {
+        long count = 0;
+        long total = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            total += durations[row];
+            count++;
+        }
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+}
@@ -0,0 +1,161 @@
+package com.spring.Suwatha.analytics_module.service;
+
+
+import com.spring.Suwatha.analytics_module.dto.TimeGranularity;
+import com.spring.Suwatha.analytics_module.dto.TimeSeriesDto;
+import com.spring.Suwatha.analytics_module.dto.TimeSeriesLineDto;
+import com.spring.Suwatha.analytics_module.dto.TimeSeriesSplit;
+import com.spring.Suwatha.analytics_module.entity.SessionRollup;
+import com.spring.Suwatha.analytics_module.entity.SessionRollupKey;
+import com.spring.Suwatha.analytics_module.repository.SessionRollupRepository;
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import com.spring.Suwatha.session_module.repo.SessionRepository;
+import com.spring.Suwatha.shared.exception.InvalidAnalyticsQueryException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Session counts over an arbitrary range and bucket size. Hour and coarser buckets are summed from
+ * {@code session_rollup} by a date-range scan; minute buckets come from a start_time range scan of
+ * {@code sessions}. Every row is placed straight into its bucket by index, so the output has no gaps
+ * and needs no sorting or per-bucket lookups.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TimeSeriesService {
+    
+    private static final String TOTAL = "total";
+    
+    private final SessionRollupRepository rollupRepository;
+    private final SessionRepository sessionRepository;
+    private final int maxPoints;
+    private final int maxBuckets;
+    
+    public TimeSeriesService(SessionRollupRepository rollupRepository, SessionRepository sessionRepository,
+                             @Value("${analytics.time-series.max-points:2000}") int maxPoints,
+                             @Value("${analytics.time-series.max-buckets:100000}") int maxBuckets) {
+        this.rollupRepository = rollupRepository;
+        this.sessionRepository = sessionRepository;
+        this.maxPoints = maxPoints;
+        this.maxBuckets = maxBuckets;
+    }
+    
+    public TimeSeriesDto getSessionTimeSeries(LocalDateTime from, LocalDateTime to, TimeGranularity granularity, TimeSeriesSplit split) {
+        return getSessionTimeSeries(from, to, granularity, split, null);
+    }
+    
+    /**
+     * @param from         inclusive; widened to the start of its bucket
+     * @param to           exclusive; widened to the end of its bucket
+     * @param targetPoints if set, longer series (up to max-buckets) are computed in full and then
+     *                     downsampled with LTTB to this many points; otherwise the range may not exceed max-points
+     */
+    public TimeSeriesDto getSessionTimeSeries(LocalDateTime from, LocalDateTime to, TimeGranularity granularity, TimeSeriesSplit split,
+                                              Integer targetPoints) {
+        if (!from.isBefore(to)) {
+            throw new InvalidAnalyticsQueryException("'from' must be before 'to'.");
+        }
+        LttbDownsampler.validate(targetPoints);
+        if (targetPoints != null && targetPoints > maxPoints) {
+            throw new InvalidAnalyticsQueryException("maxPoints must not exceed " + maxPoints + ".");
+        }
+        LocalDateTime origin = granularity.truncate(from);
+        long points = granularity.bucketIndex(origin, to.minusNanos(1)) + 1;
+        int limit = targetPoints != null ? maxBuckets : maxPoints;
+        if (points > limit) {
+            throw new InvalidAnalyticsQueryException("The range has " + points + " " + granularity.name().toLowerCase()
+                    + " buckets; at most " + limit + " are supported. Use a shorter range or a coarser granularity.");
+        }
+        int bucketCount = (int) points;
+        LocalDateTime end = granularity.plus(origin, bucketCount);
+        
+        List<String> lineNames = lineNames(split);
+        long[][] values = new long[lineNames.size()][bucketCount];
+        
+        if (granularity == TimeGranularity.MINUTE) {
+            for (Object[] row : sessionRepository.findStartTimesBetween(origin, end)) {
+                int line = line(split, (CommunicationType) row[1], (SessionStatus) row[2]);
+                add(values[line], granularity, origin, (LocalDateTime) row[0], 1);
+            }
+        } else {
+            for (SessionRollup bucket : rollupRepository.findBucketsBetween(origin.toLocalDate(), end.minusNanos(1).toLocalDate())) {
+                SessionRollupKey key = bucket.getId();
+                int line = line(split, key.getCommunicationType(), key.getStatus());
+                add(values[line], granularity, origin, key.getRollupDate().atTime(key.getHourOfDay(), 0), bucket.getSessionCount());
+            }
+        }
+        
+        int[] kept = targetPoints != null && bucketCount > targetPoints
+                ? LttbDownsampler.selectIndexes(totals(values, bucketCount), targetPoints)
+                : null;
+        
+        List<LocalDateTime> bucketStarts = new ArrayList<>(kept != null ? kept.length : bucketCount);
+        if (kept == null) {
+            for (int i = 0; i < bucketCount; i++) {
+                bucketStarts.add(granularity.plus(origin, i));
+            }
+        } else {
+            for (int index : kept) {
+                bucketStarts.add(granularity.plus(origin, index));
+            }
+        }
+        List<TimeSeriesLineDto> series = new ArrayList<>(lineNames.size());
+        for (int line = 0; line < lineNames.size(); line++) {
+            series.add(new TimeSeriesLineDto(lineNames.get(line), kept == null ? values[line] : pick(values[line], kept)));
+        }
+        return new TimeSeriesDto(granularity, bucketStarts, series);
+    }
+    
+    // Split lines are downsampled at the same buckets, chosen from their sum, so they stay aligned
+    private static long[] totals(long[][] values, int bucketCount) {
+        if (values.length == 1) {
+            return values[0];
+        }
+        long[] totals = new long[bucketCount];
+        for (long[] line : values) {
+            for (int i = 0; i < bucketCount; i++) {
+                totals[i] += line[i];
+            }
+        }
+        return totals;
+    }
+    
+    private static long[] pick(long[] line, int[] indexes) {
+        long[] picked = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            picked[i] = line[indexes[i]];
+        }
+        return picked;
+    }
+    
+    // Rows outside [origin, end) come from the day-granular rollup scan and are skipped
+    private static void add(long[] line, TimeGranularity granularity, LocalDateTime origin, LocalDateTime time, long count) {
+        long index = granularity.bucketIndex(origin, time);
+        if (index >= 0 && index < line.length) {
+            line[(int) index] += count;
+        }
+    }
+    
+    private static List<String> lineNames(TimeSeriesSplit split) {
+        return switch (split) {
+            case NONE -> List.of(TOTAL);
+            case COMMUNICATION_TYPE -> Arrays.stream(CommunicationType.values()).map(Enum::name).toList();
+            case STATUS -> Arrays.stream(SessionStatus.values()).map(Enum::name).toList();
+        };
+    }
+    
+    private static int line(TimeSeriesSplit split, CommunicationType communicationType, SessionStatus status) {
+        return switch (split) {
+            case NONE -> 0;
+            case COMMUNICATION_TYPE -> communicationType.ordinal();
+            case STATUS -> status.ordinal();
+        };
+    }
+}
@@ -2,8 +2,14 @@ package com.spring.Suwatha.session_module.controller;
 
 
 import com.spring.Suwatha.session_module.dto.*;
+import com.spring.Suwatha.session_module.service.SessionHeartbeatRegistry;
+import com.spring.Suwatha.session_module.service.SessionHeartbeatTokens;
+import com.spring.Suwatha.session_module.service.SessionRequestRateLimiter;
 import com.spring.Suwatha.session_module.service.SessionService;
+import com.spring.Suwatha.session_module.service.SessionWaitingQueue;
 import com.spring.Suwatha.session_module.service.SummaryService;
+import com.spring.Suwatha.shared.exception.AccessDeniedException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -12,6 +18,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/api/sessions")
@@ -23,12 +30,33 @@ public class SessionController {
     @Autowired
     private SummaryService summaryService;
     
+    @Autowired
+    private SessionWaitingQueue sessionWaitingQueue;
+    
+    @Autowired
+    private SessionHeartbeatRegistry sessionHeartbeatRegistry;
     
+    @Autowired
+    private SessionHeartbeatTokens sessionHeartbeatTokens;
+    
+    @Autowired
+    private SessionRequestRateLimiter sessionRequestRateLimiter;
     
+    
+    
+    /**
+     * Matches the patient with a free therapist. If everyone is busy the request is held open
+     * in a FIFO queue until a therapist frees up or the queue timeout passes.
+     * Requests over the per-client or global rate limit are rejected with 429 before any work is done.
+     * Clients should send an Idempotency-Key so that retries return the original session.
+     */
     @PostMapping("/request")
-    public ResponseEntity<SessionViewDto> requestSession( @RequestBody SessionRequestDto requestDto) {
-        SessionViewDto sessionDetails = sessionService.requestAndMatchSession(requestDto);
-        return ResponseEntity.ok(sessionDetails);
+    public DeferredResult<ResponseEntity<SessionViewDto>> requestSession(
+            @RequestBody SessionRequestDto requestDto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        sessionRequestRateLimiter.acquire(request);
+        return sessionWaitingQueue.requestOrWait(requestDto, idempotencyKey);
     }
     
     @PutMapping("/{sessionId}/cancel")
@@ -51,6 +79,23 @@ public class SessionController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * Keep-alive sent periodically by the chat/video client. Sessions that stop sending it are
+     * closed by the stale-session reaper. The caller must present the session's heartbeatToken
+     * from {@link SessionViewDto}. Answers 404 once the session is no longer active.
+     */
+    @PutMapping("/{sessionId}/heartbeat")
+    public ResponseEntity<Void> heartbeat(
+            @PathVariable Long sessionId,
+            @RequestHeader("X-Session-Token") String sessionToken) {
+        if (!sessionHeartbeatTokens.verify(sessionId, sessionToken)) {
+            throw new AccessDeniedException("Invalid session token.");
+        }
+        return sessionHeartbeatRegistry.touch(sessionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+    
     @PostMapping("/{sessionId}/summary")
     @PreAuthorize("hasRole('THERAPIST')")
     public ResponseEntity<Void> addSessionSummary(
@@ -8,4 +8,7 @@ import lombok.Data;
 public class SessionRequestDto {
     @NotNull
     private CommunicationType communicationType;
+    
+    // Optional: preferred specialization, used by the matching engine to rank therapists
+    private Long specializationId;
 }
@@ -11,4 +11,5 @@ public class SessionViewDto {
     private Long therapistId;
     private String therapistName;
     private String sessionUrl; // The URL for the patient to redirect to
+    private String heartbeatToken; // Sent back as X-Session-Token on PUT /api/sessions/{id}/heartbeat
 }
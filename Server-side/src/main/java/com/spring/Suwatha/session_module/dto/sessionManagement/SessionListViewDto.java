@@ -31,7 +31,23 @@ public class SessionListViewDto {
     private Integer rating;
     private Long durationInMinutes;
     
-
+    
+    /**
+     * Used by the Criteria constructor projections in SessionRepositoryImpl, so list rows are built
+     * straight from the result set without loading Session entities.
+     */
+    public SessionListViewDto(Long sessionId, CommunicationType communicationType, LocalDateTime startTime, LocalDateTime endTime,
+                              SessionStatus status, String patientHandle, String therapistName, Integer rating) {
+        this.sessionId = sessionId;
+        this.communicationType = communicationType != null ? communicationType.name() : null;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status != null ? status.name() : null;
+        this.patientHandle = patientHandle;
+        this.therapistName = therapistName;
+        this.rating = rating;
+        calculateAndSetDuration();
+    }
     
     public void calculateAndSetDuration() {
         if (this.startTime != null && this.endTime != null) {
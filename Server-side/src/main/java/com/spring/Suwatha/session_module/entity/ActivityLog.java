@@ -1,6 +1,7 @@
 package com.spring.Suwatha.session_module.entity;
 
 
+import com.spring.Suwatha.shared.persistence.SequenceTableAligner;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 public class ActivityLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_logs_seq")
+    @SequenceGenerator(name = "activity_logs_seq", sequenceName = "activity_logs_seq", allocationSize = SequenceTableAligner.ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, length = 512)
@@ -1,6 +1,7 @@
 package com.spring.Suwatha.session_module.entity;
 
 
+import com.spring.Suwatha.shared.persistence.SequenceTableAligner;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 public class Patient {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = SequenceTableAligner.ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -4,6 +4,7 @@ package com.spring.Suwatha.session_module.entity;
 import com.spring.Suwatha.session_module.dto.CommunicationType;
 import com.spring.Suwatha.session_module.dto.SessionStatus;
 import com.spring.Suwatha.user_module.entity.Therapist;
+import com.spring.Suwatha.shared.persistence.SequenceTableAligner;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,13 +12,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_status_start_time", columnList = "status, start_time"),
+        @Index(name = "idx_sessions_therapist_start_time", columnList = "therapist_id, start_time"),
+        @Index(name = "idx_sessions_start_time", columnList = "start_time")
+})
 @Data
 @NoArgsConstructor
 public class Session {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_seq", allocationSize = SequenceTableAligner.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +48,10 @@ public class Session {
     private LocalDateTime startTime;
     
     private LocalDateTime endTime;
+    
+    // SHA-256 of the client's Idempotency-Key header, if one was sent
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
 
     
 }
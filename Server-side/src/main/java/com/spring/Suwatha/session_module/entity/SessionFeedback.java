@@ -1,6 +1,7 @@
 package com.spring.Suwatha.session_module.entity;
 
 
+import com.spring.Suwatha.shared.persistence.SequenceTableAligner;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class SessionFeedback {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_feedback_seq")
+    @SequenceGenerator(name = "session_feedback_seq", sequenceName = "session_feedback_seq", allocationSize = SequenceTableAligner.ALLOCATION_SIZE)
     private Long id;
     
     /**
@@ -1,5 +1,7 @@
 package com.spring.Suwatha.session_module.entity;
 
+import com.spring.Suwatha.analytics_module.entity.CityDimension;
+import com.spring.Suwatha.analytics_module.entity.IllnessDimension;
 import com.spring.Suwatha.session_module.dto.Gender;
 import com.spring.Suwatha.session_module.dto.RiskAssessment;
 import jakarta.persistence.*;
@@ -11,7 +13,11 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "session_summary")
+@Table(name = "session_summary", indexes = {
+        @Index(name = "idx_session_summary_city", columnList = "city_id"),
+        @Index(name = "idx_session_summary_illness", columnList = "illness_id"),
+        @Index(name = "idx_session_summary_risk_city", columnList = "risk_assessment, city_id")
+})
 @Data
 @NoArgsConstructor
 public class SessionSummary {
@@ -34,6 +40,15 @@ public class SessionSummary {
     @Column(nullable = true)
     private String city;
     
+    // Dictionary-encoded copies of identifiedIllness/city, used for filtering and grouping
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "illness_id")
+    private IllnessDimension illnessDimension;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "city_id")
+    private CityDimension cityDimension;
+    
     @Column
     private Integer age; // Use Integer object to allow null
     
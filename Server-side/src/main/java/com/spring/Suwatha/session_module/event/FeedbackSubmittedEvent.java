@@ -0,0 +1,12 @@
+package com.spring.Suwatha.session_module.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FeedbackSubmittedEvent {
+    private final Long sessionId;
+    private final Long therapistId;
+    private final int rating;
+}
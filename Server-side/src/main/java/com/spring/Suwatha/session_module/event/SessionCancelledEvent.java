@@ -0,0 +1,21 @@
+package com.spring.Suwatha.session_module.event;
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class SessionCancelledEvent {
+    private final Long sessionId;
+    private final Long therapistId;
+    private final String therapistName;
+    private final String patientHandle;
+    private final CommunicationType communicationType;
+    private final SessionStatus previousStatus;
+    private final LocalDateTime startTime;
+    private final String reason;
+}
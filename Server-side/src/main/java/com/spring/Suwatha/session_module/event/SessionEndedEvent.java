@@ -0,0 +1,19 @@
+package com.spring.Suwatha.session_module.event;
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class SessionEndedEvent {
+    private final Long sessionId;
+    private final Long therapistId;
+    private final String therapistName;
+    private final String patientHandle;
+    private final CommunicationType communicationType;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+}
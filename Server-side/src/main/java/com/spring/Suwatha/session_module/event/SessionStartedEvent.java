@@ -0,0 +1,25 @@
+package com.spring.Suwatha.session_module.event;
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the session-request transaction once a patient has been matched.
+ * Carries plain values only, so listeners never need the (possibly detached) entities.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionStartedEvent {
+    private final Long sessionId;
+    private final Long therapistId;
+    private final String therapistName;
+    private final String therapistEmail;
+    private final Long patientId;
+    private final String patientHandle;
+    private final CommunicationType communicationType;
+    private final String sessionUrl;
+    private final LocalDateTime startTime;
+}
@@ -0,0 +1,25 @@
+package com.spring.Suwatha.session_module.event;
+
+import com.spring.Suwatha.session_module.dto.Gender;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class SessionSummaryCreatedEvent {
+    private final Long sessionId;
+    private final Long patientId;
+    private final Long therapistId;
+    private final LocalDateTime sessionStartTime;
+    private final String identifiedIllness;
+    private final String city;
+    private final Long illnessId;  // dimension ids, null when left blank
+    private final Long cityId;
+    private final Integer age;
+    private final Gender gender;
+    private final RiskAssessment riskAssessment;
+    private final Integer durationInMinutes;
+}
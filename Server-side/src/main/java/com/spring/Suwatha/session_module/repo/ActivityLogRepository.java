@@ -18,6 +18,7 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog,Long> {
     List<ActivityLog> findAllByOrderByTimestampDesc(Pageable pageable);
     
     
-    @Query("SELECT al FROM ActivityLog al WHERE al.timestamp >= :startOfDay AND al.timestamp <= :endOfDay ORDER BY al.timestamp DESC")
-    List<ActivityLog> findByDateRange(@Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
+    // Half-open range: [start, end)
+    @Query("SELECT al FROM ActivityLog al WHERE al.timestamp >= :start AND al.timestamp < :end ORDER BY al.timestamp DESC")
+    List<ActivityLog> findByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
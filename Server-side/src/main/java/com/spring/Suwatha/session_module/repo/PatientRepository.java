@@ -1,9 +1,23 @@
 package com.spring.Suwatha.session_module.repo;
 
 import com.spring.Suwatha.session_module.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient,Long> {
+    
+    // Streams (id, handle) pairs without buffering the table; used to build the name search index
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, p.anonymousHandle FROM Patient p")
+    Stream<Object[]> streamAllHandles();
 }
@@ -3,11 +3,20 @@ package com.spring.Suwatha.session_module.repo;
 import com.spring.Suwatha.session_module.entity.SessionFeedback;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 @Repository
 public interface SessionFeedbackRepository extends JpaRepository<SessionFeedback,Long> {
-    @Query("SELECT AVG(sf.rating) FROM SessionFeedback sf WHERE sf.session.therapist.id = :therapistId")
-    Double getAverageRatingForTherapist(Long therapistId);
+    
+    @Query("SELECT sf.session.therapist.id, AVG(sf.rating) FROM SessionFeedback sf WHERE sf.submittedAt >= :since GROUP BY sf.session.therapist.id")
+    List<Object[]> getAverageRatingPerTherapistSince(@Param("since") LocalDateTime since);
+    
+    // Single row: rating sum and feedback count, used to seed the dashboard average
+    @Query("SELECT COALESCE(SUM(sf.rating), 0), COUNT(sf) FROM SessionFeedback sf")
+    List<Object[]> getRatingTotals();
 }
@@ -1,80 +1,27 @@
 package com.spring.Suwatha.session_module.repo;
 
-import com.spring.Suwatha.analytics_module.projection.IDailySessionCountProjection;
-import com.spring.Suwatha.analytics_module.projection.IHourlyUsageProjection;
-import com.spring.Suwatha.analytics_module.projection.IStatisticsProjection;
 import com.spring.Suwatha.session_module.dto.sessionManagement.SessionListViewDto;
+import com.spring.Suwatha.session_module.dto.SessionStatus;
 import com.spring.Suwatha.session_module.entity.Session;
 import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session,Long> ,SessionRepositoryCustom  {
     
-    @Query(
-            value = """
-            SELECT
-                (SELECT COUNT(*) FROM sessions WHERE status = 'ACTIVE') AS activeSessions,
-                (SELECT COUNT(*) FROM sessions) AS totalSessions,
-                (SELECT COUNT(*) FROM sessions WHERE status = 'COMPLETED') AS finishedSessions,
-                (SELECT COUNT(*) FROM sessions WHERE DATE(start_time) = CURDATE()) AS sessionsToday,
-                (SELECT COUNT(*) FROM therapists WHERE current_status = 'AVAILABLE' AND is_active = TRUE) AS therapistsAvailable,
-                (SELECT COUNT(*) FROM therapists) AS totalTherapists,
-                (SELECT COUNT(*) FROM therapists WHERE current_status = 'BUSY' AND is_active = TRUE) AS busyTherapists,
-                (SELECT COUNT(*) FROM therapists WHERE current_status = 'OFFLINE' ) AS offlineTherapists,
-                (SELECT AVG(rating) FROM session_feedback) AS averageSessionRating
-        """,
-            nativeQuery = true
-    )
-    IStatisticsProjection getDashboardStatistics();
-    
-    
-    @Query(
-            value = """
-            SELECT
-                HOUR(s.start_time) AS hourOfDay,
-                COUNT(s.id) AS sessionCount
-            FROM
-                sessions s
-            WHERE
-                s.start_time IS NOT NULL
-            GROUP BY
-                HOUR(s.start_time)
-            ORDER BY
-                hourOfDay ASC
-        """,
-            nativeQuery = true
-    )
-    List<IHourlyUsageProjection> getHourlyUsage();
-    
-    
-    
-    @Query(
-            value = """
-            SELECT
-                DATE(s.start_time) AS sessionDate,
-                COUNT(s.id) AS sessionCount
-            FROM
-                sessions s
-            WHERE
-                s.start_time >= :startDate
-            GROUP BY
-                sessionDate
-            ORDER BY
-                sessionDate ASC
-        """,
-            nativeQuery = true
-    )
-    List<IDailySessionCountProjection> getDailySessionCountsSince(@Param("startDate") LocalDate startDate);
+    // The hourly and daily charts are served from session_rollup (SessionRollupRepository)
     
     
     @Query(value = """
@@ -87,7 +34,45 @@ public interface SessionRepository extends JpaRepository<Session,Long> ,SessionR
     Page<Session> findAllForManagementView(Pageable pageable);
     
     
-    @Query("SELECT COUNT(s) FROM Session s WHERE s.therapist.id = :therapistId AND s.startTime >= :startTime")
-    long countSessionsForTherapistSince(Long therapistId, LocalDateTime startTime);
+    // Per-therapist session count and latest start time, used to seed the matching score index.
+    @Query("SELECT s.therapist.id, COUNT(s), MAX(s.startTime) FROM Session s WHERE s.startTime >= :since GROUP BY s.therapist.id")
+    List<Object[]> getTherapistLoadSince(@Param("since") LocalDateTime since);
+    
+    
+    @Query("SELECT s.id FROM Session s WHERE s.status = :status")
+    List<Long> findIdsByStatus(@Param("status") SessionStatus status);
+    
+    // Locks (SELECT ... FOR UPDATE) and loads the sessions to be reaped with their therapist and patient in one round trip
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT s FROM Session s
+        JOIN FETCH s.therapist
+        JOIN FETCH s.patient
+        WHERE s.id IN :sessionIds AND s.status = :status
+    """)
+    List<Session> findWithParticipantsByIdInAndStatus(@Param("sessionIds") List<Long> sessionIds, @Param("status") SessionStatus status);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Session s SET s.status = :newStatus, s.endTime = :endTime WHERE s.id IN :sessionIds AND s.status = :expectedStatus")
+    int updateStatusForIds(@Param("sessionIds") List<Long> sessionIds,
+                           @Param("expectedStatus") SessionStatus expectedStatus,
+                           @Param("newStatus") SessionStatus newStatus,
+                           @Param("endTime") LocalDateTime endTime);
+    
+    // Row lock for the state transitions (end, cancel), so they serialize with the stale-session reaper
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.id = :sessionId")
+    Optional<Session> findByIdForUpdate(@Param("sessionId") Long sessionId);
+    
+    @Query("SELECT s FROM Session s JOIN FETCH s.therapist WHERE s.idempotencyKey = :idempotencyKey")
+    Optional<Session> findByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+    
+    long countByStatus(SessionStatus status);
+    
+    long countByStartTimeGreaterThanEqual(LocalDateTime startTime);
+    
+    // Range scan on idx_sessions_start_time; only used for minute buckets, whose range is capped
+    @Query("SELECT s.startTime, s.communicationType, s.status FROM Session s WHERE s.startTime >= :from AND s.startTime < :to")
+    List<Object[]> findStartTimesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     
 }
@@ -1,17 +1,11 @@
 package com.spring.Suwatha.session_module.repo;
 
-import com.spring.Suwatha.session_module.entity.Session;
+import com.spring.Suwatha.session_module.dto.sessionManagement.SessionListViewDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface SessionRepositoryCustom {
-    Page<Session> findWithFilters(
-            String searchTerm,
-            String status,
-            String communicationType,
-            Pageable pageable
-    );
-    
-    Page<Session> findWithFiltersForTherapist(
+    // Admin and therapist session lists, projected straight into list rows (therapistId null = all sessions)
+    Page<SessionListViewDto> findListViewWithFilters(
             Long therapistId, String searchTerm, String status, String communicationType, Pageable pageable);
 }
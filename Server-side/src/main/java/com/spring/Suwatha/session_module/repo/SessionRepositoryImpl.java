@@ -2,16 +2,17 @@ package com.spring.Suwatha.session_module.repo;
 
 import com.spring.Suwatha.session_module.dto.CommunicationType;
 import com.spring.Suwatha.session_module.dto.SessionStatus;
+import com.spring.Suwatha.session_module.dto.sessionManagement.SessionListViewDto;
 import com.spring.Suwatha.session_module.entity.Patient;
 import com.spring.Suwatha.session_module.entity.Session;
+import com.spring.Suwatha.session_module.entity.SessionFeedback;
+import com.spring.Suwatha.shared.search.NameSearchIndex;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,211 +20,102 @@ import java.util.List;
 public class SessionRepositoryImpl implements SessionRepositoryCustom {
     
     private final EntityManager em;
+    private final NameSearchIndex nameSearchIndex;
     
-    public SessionRepositoryImpl(EntityManager em) {
+    public SessionRepositoryImpl(EntityManager em, NameSearchIndex nameSearchIndex) {
         this.em = em;
+        this.nameSearchIndex = nameSearchIndex;
     }
     
+    // ------------------------------ List-view projection -------------------------------------------
+    
+    /**
+     * Selects only the columns of {@link SessionListViewDto} through a constructor expression, so no
+     * Session/Patient/Therapist/SessionFeedback entities are created or tracked for a page of rows.
+     */
     @Override
-    public Page<Session> findWithFilters(String searchTerm, String status, String communicationType, Pageable pageable) {
+    public Page<SessionListViewDto> findListViewWithFilters(Long therapistId, String searchTerm, String status, String communicationType, Pageable pageable) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
-        
-        // Query for fetching the actual data
-        CriteriaQuery<Session> query = cb.createQuery(Session.class);
+        CriteriaQuery<SessionListViewDto> query = cb.createQuery(SessionListViewDto.class);
         Root<Session> session = query.from(Session.class);
+        Join<Session, Patient> patient = session.join("patient", JoinType.INNER);
+        Join<Session, Therapist> therapist = session.join("therapist", JoinType.INNER);
+        Join<Session, SessionFeedback> feedback = session.join("sessionFeedback", JoinType.LEFT);
+        
+        query.select(cb.construct(SessionListViewDto.class,
+                session.get("id"),
+                session.get("communicationType"),
+                session.get("startTime"),
+                session.get("endTime"),
+                session.get("status"),
+                patient.get("anonymousHandle"),
+                therapist.get("name"),
+                feedback.get("rating")
+        ));
+        query.where(buildListViewPredicate(cb, session, patient, therapist, therapistId, searchTerm, status, communicationType));
         
-        // Eagerly fetch related entities to avoid N+1 problem
-        session.fetch("patient", JoinType.INNER);
-        session.fetch("therapist", JoinType.INNER);
-        session.fetch("sessionFeedback", JoinType.LEFT);
-        
-        // Build the WHERE clause dynamically
-        Predicate predicate = buildPredicate(cb, session, searchTerm, status, communicationType);
-        query.where(predicate);
-        
-        // Apply sorting from Pageable
         if (pageable.getSort().isSorted()) {
             List<Order> orders = new ArrayList<>();
             pageable.getSort().forEach(order -> {
+                Path<?> path;
                 if (order.getProperty().equals("therapistName")) {
-                    orders.add(order.isAscending() ? cb.asc(session.get("therapist").get("name")) : cb.desc(session.get("therapist").get("name")));
+                    path = therapist.get("name");
                 } else if (order.getProperty().equals("patientHandle")) {
-                    orders.add(order.isAscending() ? cb.asc(session.get("patient").get("anonymousHandle")) : cb.desc(session.get("patient").get("anonymousHandle")));
+                    path = patient.get("anonymousHandle");
                 } else {
-                    orders.add(order.isAscending() ? cb.asc(session.get(order.getProperty())) : cb.desc(session.get(order.getProperty())));
+                    path = session.get(order.getProperty());
                 }
+                orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
             });
             query.orderBy(orders);
         }
         
-        query.distinct(true); // Important when using fetch joins with collections
+        List<SessionListViewDto> resultList = em.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
         
-        // Execute the data query with pagination
-        TypedQuery<Session> typedQuery = em.createQuery(query);
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-        List<Session> resultList = typedQuery.getResultList();
-        
-        // Query for getting the total count for pagination
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
         Root<Session> countSession = countQuery.from(Session.class);
-        Predicate countPredicate = buildPredicate(cb, countSession, searchTerm, status, communicationType);
-        countQuery.select(cb.count(countSession)).where(countPredicate);
+        Join<Session, Patient> countPatient = countSession.join("patient", JoinType.INNER);
+        Join<Session, Therapist> countTherapist = countSession.join("therapist", JoinType.INNER);
+        countQuery.select(cb.count(countSession))
+                .where(buildListViewPredicate(cb, countSession, countPatient, countTherapist, therapistId, searchTerm, status, communicationType));
         Long total = em.createQuery(countQuery).getSingleResult();
         
         return new PageImpl<>(resultList, pageable, total);
     }
     
-  
-    
-    private Predicate buildPredicate(CriteriaBuilder cb, Root<Session> session, String searchTerm, String status, String communicationType) {
-        List<Predicate> predicates = new ArrayList<>();
-        
-        // 1. Search Term Filter (searches therapist name AND patient handle)
-        if (searchTerm != null && !searchTerm.isBlank()) {
-            Join<Session, Therapist> therapist = session.join("therapist");
-            Join<Session, Patient> patient = session.join("patient");
-            Predicate therapistNameLike = cb.like(cb.lower(therapist.get("name")), "%" + searchTerm.toLowerCase() + "%");
-            Predicate patientHandleLike = cb.like(cb.lower(patient.get("anonymousHandle")), "%" + searchTerm.toLowerCase() + "%");
-            predicates.add(cb.or(therapistNameLike, patientHandleLike));
-        }
-        
-        // 2. Status Filter
-        if (status != null && !status.isBlank()) {
-            try {
-                SessionStatus sessionStatus = SessionStatus.valueOf(status.toUpperCase());
-                predicates.add(cb.equal(session.get("status"), sessionStatus));
-            } catch (IllegalArgumentException e) {
-                // Invalid status string provided, ignore this filter
-            }
-        }
-        
-        // 3. Communication Type Filter
-        if (communicationType != null && !communicationType.isBlank()) {
-            try {
-                CommunicationType commType = CommunicationType.valueOf(communicationType.toUpperCase());
-                predicates.add(cb.equal(session.get("communicationType"), commType));
-            } catch (IllegalArgumentException e) {
-                // Invalid type string provided, ignore this filter
-            }
-        }
-        
-        return cb.and(predicates.toArray(new Predicate[0]));
-    }
-    
-    
-    
-    // ------------------------------ find With Filters For Therapist -------------------------------------------
-    
-    @Override
-    public Page<Session> findWithFiltersForTherapist(Long therapistId, String searchTerm, String status, String communicationType, Pageable pageable) {
-    
-        CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Session> query = cb.createQuery(Session.class);
-        Root<Session> session = query.from(Session.class);
-    
-        session.fetch("patient", JoinType.INNER);
-        session.fetch("therapist", JoinType.INNER);
-        session.fetch("sessionFeedback", JoinType.LEFT);
-    
-        Predicate predicate = buildPredicate(cb, session, therapistId, searchTerm, status, communicationType);
-        query.where(predicate);
-    
-        // Apply sorting using the now-included helper method
-        applySorting(cb, query, session, pageable.getSort());
-    
-        query.distinct(true);
-    
-        // Execute query
-        TypedQuery<Session> typedQuery = em.createQuery(query);
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize()); // <-- TYPO CORRECTED HERE
-        List<Session> resultList = typedQuery.getResultList();
-    
-        // Get total count
-        Long total = getTotalCountForTherapist(cb, therapistId, searchTerm, status, communicationType);
-    
-        return new PageImpl<>(resultList, pageable, total);
-    }
-    
-    // Helper method for the count query to keep things clean
-    private Long getTotalCountForTherapist(CriteriaBuilder cb, Long therapistId, String searchTerm, String status, String communicationType) {
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Session> countSession = countQuery.from(Session.class);
-        Predicate basePredicate = buildPredicate(cb, countSession, searchTerm, status, communicationType);
-        Predicate therapistPredicate = cb.equal(countSession.get("therapist").get("id"), therapistId);
-        
-        countQuery.select(cb.count(countSession)).where(cb.and(basePredicate, therapistPredicate));
-        return em.createQuery(countQuery).getSingleResult();
-    }
-    
-    
-    
-    private Predicate buildPredicate(CriteriaBuilder cb, Root<Session> session, Long therapistId, String searchTerm, String status, String communicationType) {
+    // Reuses the query's joins so the search predicates never add joins of their own
+    private Predicate buildListViewPredicate(CriteriaBuilder cb, Root<Session> session, Join<Session, Patient> patient, Join<Session, Therapist> therapist,
+                                             Long therapistId, String searchTerm, String status, String communicationType) {
         List<Predicate> predicates = new ArrayList<>();
         
-        // ** ADDED ** Therapist ID Filter
         if (therapistId != null) {
-            predicates.add(cb.equal(session.get("therapist").get("id"), therapistId));
+            predicates.add(cb.equal(therapist.get("id"), therapistId));
         }
         
-        // Search Term Filter
         if (searchTerm != null && !searchTerm.isBlank()) {
-            Join<Session, Patient> patient = session.join("patient");
-            // If therapist ID is not specified (admin search), also search by therapist name
-            if (therapistId == null) {
-                Join<Session, Therapist> therapist = session.join("therapist");
-                Predicate therapistNameLike = cb.like(cb.lower(therapist.get("name")), "%" + searchTerm.toLowerCase() + "%");
-                Predicate patientHandleLike = cb.like(cb.lower(patient.get("anonymousHandle")), "%" + searchTerm.toLowerCase() + "%");
-                predicates.add(cb.or(therapistNameLike, patientHandleLike));
-            } else {
-                // If it's a therapist search, they only need to search by patient handle
-                predicates.add(cb.like(cb.lower(patient.get("anonymousHandle")), "%" + searchTerm.toLowerCase() + "%"));
-            }
+            Predicate patientHandleLike = nameSearchIndex.patientHandleMatches(cb, patient, searchTerm);
+            // Therapists only search their own patients; admins also search by therapist name
+            predicates.add(therapistId == null
+                    ? cb.or(nameSearchIndex.therapistNameMatches(cb, therapist, searchTerm), patientHandleLike)
+                    : patientHandleLike);
         }
         
-        // Status Filter
         if (status != null && !status.isBlank()) {
             try {
-                SessionStatus sessionStatus = SessionStatus.valueOf(status.toUpperCase());
-                predicates.add(cb.equal(session.get("status"), sessionStatus));
+                predicates.add(cb.equal(session.get("status"), SessionStatus.valueOf(status.toUpperCase())));
             } catch (IllegalArgumentException e) { /* Ignore invalid status */ }
         }
         
-        // Communication Type Filter
         if (communicationType != null && !communicationType.isBlank()) {
             try {
-                CommunicationType commType = CommunicationType.valueOf(communicationType.toUpperCase());
-                predicates.add(cb.equal(session.get("communicationType"), commType));
+                predicates.add(cb.equal(session.get("communicationType"), CommunicationType.valueOf(communicationType.toUpperCase())));
             } catch (IllegalArgumentException e) { /* Ignore invalid type */ }
         }
         
         return cb.and(predicates.toArray(new Predicate[0]));
     }
     
-    // --- THIS IS THE MISSING METHOD ---
-    /**
-     * A helper method to dynamically apply sorting from a Pageable object to a CriteriaQuery.
-     * Handles sorting on nested entity fields like 'therapist.name'.
-     */
-    private void applySorting(CriteriaBuilder cb, CriteriaQuery<Session> query, Root<Session> session, Sort sort) {
-        if (sort.isSorted()) {
-            List<Order> orders = new ArrayList<>();
-            sort.forEach(order -> {
-                Path<?> path;
-                // Check for nested properties and join if necessary
-                if (order.getProperty().equals("therapistName")) {
-                    path = session.get("therapist").get("name");
-                } else if (order.getProperty().equals("patientHandle")) {
-                    path = session.get("patient").get("anonymousHandle");
-                } else {
-                    // Assume it's a direct property of the Session entity
-                    path = session.get(order.getProperty());
-                }
-                orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
-            });
-            query.orderBy(orders);
-        }
-    }
-    
 }
\ No newline at end of file
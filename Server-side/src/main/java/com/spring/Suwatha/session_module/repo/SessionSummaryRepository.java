@@ -1,42 +1,51 @@
 package com.spring.Suwatha.session_module.repo;
 
 import com.spring.Suwatha.analytics_module.projection.IIllnessCountProjection;
+import com.spring.Suwatha.analytics_module.repository.SummaryFact;
 import com.spring.Suwatha.session_module.entity.SessionSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionSummaryRepository extends JpaRepository<SessionSummary,Long>  {
     
     
+    // Groups on the indexed illness_id; spelling variants of the same illness share one dimension row
     @Query("""
         SELECT
-            s.identifiedIllness AS illness,
+            i.name AS illness,
             COUNT(s) AS count
         FROM
             SessionSummary s
-        WHERE
-            s.identifiedIllness IS NOT NULL AND s.identifiedIllness <> ''
+            JOIN s.illnessDimension i
         GROUP BY
-            s.identifiedIllness
+            i.id, i.name
         ORDER BY
             count DESC
     """)
     List<IIllnessCountProjection> getIllnessCounts();
     
     
-    
-    
-    //------------------- for session report-----------------------
-    
-    @Query("SELECT DISTINCT s.city FROM SessionSummary s WHERE s.city IS NOT NULL AND s.city <> '' ORDER BY s.city")
-    List<String> findDistinctCities();
-    
-    @Query("SELECT DISTINCT s.identifiedIllness FROM SessionSummary s WHERE s.identifiedIllness IS NOT NULL AND s.identifiedIllness <> '' ORDER BY s.identifiedIllness")
-    List<String> findDistinctIllnesses();
+    // Streams every summary's facts without buffering the table; loads the summary column store (order does not matter, so no sort)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT new com.spring.Suwatha.analytics_module.repository.SummaryFact(
+            s.id, se.startTime, se.patient.id, se.therapist.id, s.cityDimension.id, s.illnessDimension.id,
+            s.riskAssessment, s.age, s.gender, s.durationInMinutes)
+        FROM SessionSummary s
+        JOIN s.session se
+    """)
+    Stream<SummaryFact> streamAllFacts();
     
 //    @Query("SELECT new com.spring.Suwatha.analytics_module.dto.reportDto.ReportSummaryDto(" +
 //            "COUNT(ss.id), " +
@@ -9,7 +9,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 
 @Service
@@ -38,9 +37,9 @@ public class ActivityLogService {
     //-------------------  get activity logs by date -----------------------------
     
     public List<ActivityLog> getLogsForDate(LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();           // e.g., 2025-08-15T00:00:00
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);       // e.g., 2025-08-15T23:59:59.999...
-        return activityLogRepository.findByDateRange(startOfDay, endOfDay);
+        LocalDateTime startOfDay = date.atStartOfDay();                 // e.g., 2025-08-15T00:00:00
+        LocalDateTime startOfNextDay = date.plusDays(1).atStartOfDay();  // exclusive; LocalTime.MAX rounds up to midnight in MySQL
+        return activityLogRepository.findByDateRange(startOfDay, startOfNextDay);
     }
     
     
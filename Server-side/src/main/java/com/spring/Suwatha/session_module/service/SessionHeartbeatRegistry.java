@@ -0,0 +1,81 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import com.spring.Suwatha.session_module.dto.SessionStatus;
+import com.spring.Suwatha.session_module.event.SessionCancelledEvent;
+import com.spring.Suwatha.session_module.event.SessionEndedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.session_module.repo.SessionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last-seen time of every ACTIVE session, kept purely in memory so heartbeats never hit the database.
+ * {@link StaleSessionReaper} uses it to find sessions whose clients have gone away.
+ */
+@Component
+public class SessionHeartbeatRegistry {
+    
+    private final SessionRepository sessionRepository;
+    private final Map<Long, Long> lastSeenMillis = new ConcurrentHashMap<>();
+    
+    public SessionHeartbeatRegistry(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+    
+    // Sessions that were active before a restart get a fresh grace period
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedActiveSessions() {
+        long now = System.currentTimeMillis();
+        sessionRepository.findIdsByStatus(SessionStatus.ACTIVE).forEach(id -> lastSeenMillis.put(id, now));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionStarted(SessionStartedEvent event) {
+        lastSeenMillis.put(event.getSessionId(), System.currentTimeMillis());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionEnded(SessionEndedEvent event) {
+        lastSeenMillis.remove(event.getSessionId());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionCancelled(SessionCancelledEvent event) {
+        lastSeenMillis.remove(event.getSessionId());
+    }
+    
+    /**
+     * Records a heartbeat for an active session.
+     * @return false if the session is not (or no longer) active
+     */
+    public boolean touch(Long sessionId) {
+        return lastSeenMillis.computeIfPresent(sessionId, (id, previous) -> System.currentTimeMillis()) != null;
+    }
+    
+    public List<Long> findStale(long cutoffMillis) {
+        List<Long> stale = new ArrayList<>();
+        lastSeenMillis.forEach((sessionId, lastSeen) -> {
+            if (lastSeen < cutoffMillis) {
+                stale.add(sessionId);
+            }
+        });
+        return stale;
+    }
+    
+    public void forget(Long sessionId) {
+        lastSeenMillis.remove(sessionId);
+    }
+    
+    public int trackedCount() {
+        return lastSeenMillis.size();
+    }
+}
@@ -0,0 +1,58 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Session-scoped secret handed to the patient in {@link com.spring.Suwatha.session_module.dto.SessionViewDto}
+ * and required on every heartbeat, so only the session's own client can keep it alive.
+ * Derived as an HMAC of the session id, so nothing is stored and tokens stay valid across restarts.
+ */
+@Component
+public class SessionHeartbeatTokens {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PURPOSE = "session-heartbeat:";
+    
+    private final SecretKeySpec key;
+    
+    public SessionHeartbeatTokens(@Value("${jwt.secret}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+    
+    public String issue(Long sessionId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sign(sessionId));
+    }
+    
+    public boolean verify(Long sessionId, String token) {
+        if (token == null) {
+            return false;
+        }
+        byte[] presented;
+        try {
+            presented = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException notBase64) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(sessionId), presented);
+    }
+    
+    private byte[] sign(Long sessionId) {
+        try {
+            // Mac instances are not thread-safe, and creating one is cheap next to the HTTP round trip
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal((PURPOSE + sessionId).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+        }
+    }
+}
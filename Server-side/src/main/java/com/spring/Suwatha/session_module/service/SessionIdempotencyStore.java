@@ -0,0 +1,130 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import com.spring.Suwatha.session_module.dto.SessionViewDto;
+import com.spring.Suwatha.shared.exception.IllegalStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the outcome of recent session requests by their Idempotency-Key, so a client retry gets the
+ * original {@link SessionViewDto} instead of a second patient, session and therapist. Recent keys are
+ * answered from a bounded, expiring in-memory map; older ones fall back to the key stored on the session row.
+ * When the map is full the oldest entry is evicted rather than skipping the in-flight marker.
+ */
+@Component
+public class SessionIdempotencyStore {
+    
+    private final SessionService sessionService;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    @Value("${idempotency.session-request.ttl-ms:600000}")
+    private long ttlMs;
+    
+    @Value("${idempotency.session-request.max-entries:10000}")
+    private int maxEntries;
+    
+    public SessionIdempotencyStore(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+    
+    /**
+     * Client keys are arbitrary strings; hashing them gives a fixed-width column value and keeps raw
+     * client input out of the database.
+     */
+    public String normalize(String idempotencyKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new java.lang.IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Marks the key as in flight.
+     * @return the original response if this key already produced a session, empty if the caller should proceed
+     * @throws IllegalStateException if another request with the same key is still being processed
+     */
+    public Optional<SessionViewDto> begin(String key) {
+        long now = System.currentTimeMillis();
+        Entry inFlight = new Entry(null, now + ttlMs);
+        Entry[] existing = new Entry[1];
+        
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                evictOldest();
+            }
+        }
+        // Always record the in-flight marker, otherwise a concurrent retry would run the matching path again
+        entries.compute(key, (k, current) -> {
+            if (current != null && current.expiresAtMillis > now) {
+                existing[0] = current;
+                return current;
+            }
+            return inFlight;
+        });
+        
+        if (existing[0] != null) {
+            if (existing[0].response == null) {
+                throw new IllegalStateException("A session request with this Idempotency-Key is already being processed.");
+            }
+            return Optional.of(existing[0].response);
+        }
+        
+        try {
+            return findStored(key);
+        } catch (RuntimeException ex) {
+            abandon(key);
+            throw ex;
+        }
+    }
+    
+    /**
+     * Looks the key up on the session rows, e.g. after the insert hit the unique idempotency_key constraint
+     * because another instance (or a request whose marker was evicted) created the session first.
+     */
+    public Optional<SessionViewDto> findStored(String key) {
+        Optional<SessionViewDto> stored = sessionService.findByIdempotencyKey(key);
+        stored.ifPresent(response -> complete(key, response));
+        return stored;
+    }
+    
+    public void complete(String key, SessionViewDto response) {
+        entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMs));
+    }
+    
+    // The request failed or timed out without creating a session, so a retry may try again
+    public void abandon(String key) {
+        entries.computeIfPresent(key, (k, current) -> current.response == null ? null : current);
+    }
+    
+    // Completed entries go first: they can still be answered from the session row
+    private void evictOldest() {
+        entries.entrySet().stream()
+                .min(Comparator.comparing((Map.Entry<String, Entry> entry) -> entry.getValue().response == null)
+                        .thenComparingLong(entry -> entry.getValue().expiresAtMillis))
+                .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.session-request.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis <= now);
+    }
+    
+    
+    private record Entry(SessionViewDto response, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import com.spring.Suwatha.session_module.event.SessionCancelledEvent;
+import com.spring.Suwatha.session_module.event.SessionEndedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.shared.email.EmailService;
+import com.spring.Suwatha.user_module.service.TherapistNotificationService;
+import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Side effects of the session lifecycle (activity log, therapist notification, email).
+ * They run after the session transaction commits, on the bounded session-event executor,
+ * so the therapist row and DB connection are never held across an SMTP round-trip.
+ */
+@AllArgsConstructor
+@Component
+public class SessionLifecycleListener {
+    
+    private ActivityLogService activityLogService;
+    private TherapistNotificationService notificationService;
+    private EmailService emailService;
+    
+    
+    @Async("sessionEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionStarted(SessionStartedEvent event) {
+        String communicationType = event.getCommunicationType().name().toLowerCase();
+        
+        activityLogService.logActivity(String.format("Dr. %s started a %s session with %s.",
+                event.getTherapistName(), communicationType, event.getPatientHandle()));
+        
+        String notificationMessage = String.format("New %s session request from %s. Please join now.",
+                communicationType, event.getPatientHandle());
+        // Persisted and pushed to the therapist's dashboard over WebSocket (/user/queue/notifications)
+        notificationService.createNotification(event.getTherapistId(), event.getTherapistEmail(),
+                notificationMessage, event.getSessionUrl());
+        
+        String emailSubject = "New Patient Session Request!";
+        String emailText = String.format("Hello Dr. %s,\n\nYou have a new session request from %s.\n\n" +
+                        "Please join the session immediately using this link: %s\n\nThank you.",
+                event.getTherapistName(), event.getPatientHandle(), event.getSessionUrl());
+        emailService.sendSimpleMail(event.getTherapistEmail(), emailSubject, emailText);
+    }
+    
+    
+    @Async("sessionEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionEnded(SessionEndedEvent event) {
+        activityLogService.logActivity(String.format("Dr. %s completed a session with %s.",
+                event.getTherapistName(), event.getPatientHandle()));
+    }
+    
+    
+    @Async("sessionEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSessionCancelled(SessionCancelledEvent event) {
+        activityLogService.logActivity(String.format("Dr. %s cancelled a session with %s. Reason: %s",
+                event.getTherapistName(), event.getPatientHandle(), event.getReason()));
+    }
+}
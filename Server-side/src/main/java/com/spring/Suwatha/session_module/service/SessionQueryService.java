@@ -2,8 +2,6 @@ package com.spring.Suwatha.session_module.service;
 
 
 import com.spring.Suwatha.session_module.dto.sessionManagement.SessionListViewDto;
-import com.spring.Suwatha.session_module.entity.Session;
-import com.spring.Suwatha.session_module.entity.SessionFeedback;
 import com.spring.Suwatha.session_module.repo.SessionRepository;
 import com.spring.Suwatha.shared.exception.ResourceNotFoundException;
 import com.spring.Suwatha.user_module.repository.TherapistRepository;
@@ -41,39 +39,8 @@ public class SessionQueryService {
             String communicationType,
             Pageable pageable) {
         
-        // Call the new custom repository method
-        Page<Session> sessionPage = sessionRepository.findWithFilters(searchTerm, status, communicationType, pageable);
-        
-        // The mapping logic remains the same!
-        return sessionPage.map(this::convertToDto);
-    }
-    
-    
-    private SessionListViewDto convertToDto(Session session) {
-        SessionListViewDto dto = new SessionListViewDto();
-        
-        dto.setSessionId(session.getId());
-        dto.setCommunicationType(session.getCommunicationType().name());
-        dto.setStartTime(session.getStartTime());
-        dto.setEndTime(session.getEndTime());
-        dto.setStatus(session.getStatus().name());
-        
-        // Safely access joined entities because we used JOIN FETCH
-        dto.setPatientHandle(session.getPatient().getAnonymousHandle());
-        dto.setTherapistName(session.getTherapist().getName());
-        
-        // **ROBUST NULL HANDLING FOR FEEDBACK**
-        SessionFeedback feedback = session.getSessionFeedback();
-        if (feedback != null) {
-            dto.setRating(feedback.getRating());
-        } else {
-            dto.setRating(null); // Explicitly set to null if no feedback exists
-        }
-        
-        // Calculate the duration
-        dto.calculateAndSetDuration();
-        
-        return dto;
+        // Rows are projected in SQL straight into SessionListViewDto (duration included)
+        return sessionRepository.findListViewWithFilters(null, searchTerm, status, communicationType, pageable);
     }
     
     
@@ -91,12 +58,9 @@ public class SessionQueryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Therapist with email " + therapistEmail + " not found."))
                 .getId();
         
-        // Call the new custom repository method with the therapist's ID
-        Page<Session> sessionPage = sessionRepository.findWithFiltersForTherapist(
+        // Same projection, restricted to this therapist's sessions
+        return sessionRepository.findListViewWithFilters(
                 therapistId, searchTerm, status, communicationType, pageable);
-        
-        // The mapping logic remains the same!
-        return sessionPage.map(this::convertToDto);
     }
     
 }
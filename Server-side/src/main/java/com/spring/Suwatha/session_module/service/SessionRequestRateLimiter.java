@@ -0,0 +1,113 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import com.spring.Suwatha.shared.exception.RateLimitExceededException;
+import com.spring.Suwatha.shared.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the anonymous /api/sessions/request endpoint: one token bucket per client IP
+ * plus a global bucket, checked before a request may create a patient or touch the matching queries.
+ */
+@Component
+public class SessionRequestRateLimiter {
+    
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final double perClientPermitsPerSecond;
+    private final int perClientBurst;
+    
+    private final Counter admittedCounter;
+    private final Counter clientRejectedCounter;
+    private final Counter globalRejectedCounter;
+    
+    public SessionRequestRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${ratelimit.session-request.enabled:true}") boolean enabled,
+            @Value("${ratelimit.session-request.trust-forwarded-for:false}") boolean trustForwardedFor,
+            @Value("${ratelimit.session-request.per-client.permits-per-minute:6}") double perClientPermitsPerMinute,
+            @Value("${ratelimit.session-request.per-client.burst:3}") int perClientBurst,
+            @Value("${ratelimit.session-request.global.permits-per-second:20}") double globalPermitsPerSecond,
+            @Value("${ratelimit.session-request.global.burst:50}") int globalBurst) {
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.perClientPermitsPerSecond = perClientPermitsPerMinute / 60.0;
+        this.perClientBurst = perClientBurst;
+        this.globalBucket = new TokenBucket(globalPermitsPerSecond, globalBurst, System.nanoTime());
+        
+        this.admittedCounter = Counter.builder("sessions.request.admitted")
+                .description("Session requests that passed admission control")
+                .register(meterRegistry);
+        this.clientRejectedCounter = Counter.builder("sessions.request.rejected")
+                .tag("scope", "client")
+                .description("Session requests shed by the per-client limit")
+                .register(meterRegistry);
+        this.globalRejectedCounter = Counter.builder("sessions.request.rejected")
+                .tag("scope", "global")
+                .description("Session requests shed by the global limit")
+                .register(meterRegistry);
+        Gauge.builder("sessions.request.tracked_clients", clientBuckets, Map::size)
+                .description("Client IPs with a partially drained bucket")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Takes a token for the calling client and from the global budget.
+     * @throws RateLimitExceededException if either bucket is empty
+     */
+    public void acquire(HttpServletRequest request) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        
+        TokenBucket clientBucket = clientBuckets.computeIfAbsent(resolveClientIp(request),
+                ip -> new TokenBucket(perClientPermitsPerSecond, perClientBurst, now));
+        long clientWait = clientBucket.tryAcquire(now);
+        if (clientWait > 0) {
+            clientRejectedCounter.increment();
+            throw new RateLimitExceededException("Too many session requests. Please wait a moment and try again.", toRetryAfterSeconds(clientWait));
+        }
+        
+        long globalWait = globalBucket.tryAcquire(now);
+        if (globalWait > 0) {
+            globalRejectedCounter.increment();
+            throw new RateLimitExceededException("We're receiving a very high number of requests. Please try again shortly.", toRetryAfterSeconds(globalWait));
+        }
+        admittedCounter.increment();
+    }
+    
+    // Buckets that have refilled completely are equivalent to a fresh one, so drop them to bound memory
+    @Scheduled(fixedDelayString = "${ratelimit.session-request.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        clientBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+    
+    private String resolveClientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return forwardedFor.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+    
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+}
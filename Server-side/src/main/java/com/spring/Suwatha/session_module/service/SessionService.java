@@ -5,24 +5,34 @@ import com.spring.Suwatha.session_module.dto.*;
 import com.spring.Suwatha.session_module.entity.Patient;
 import com.spring.Suwatha.session_module.entity.Session;
 import com.spring.Suwatha.session_module.entity.SessionFeedback;
+import com.spring.Suwatha.session_module.event.FeedbackSubmittedEvent;
+import com.spring.Suwatha.session_module.event.SessionCancelledEvent;
+import com.spring.Suwatha.session_module.event.SessionEndedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
 import com.spring.Suwatha.session_module.repo.PatientRepository;
 import com.spring.Suwatha.session_module.repo.SessionFeedbackRepository;
 import com.spring.Suwatha.session_module.repo.SessionRepository;
-import com.spring.Suwatha.shared.email.EmailService;
 import com.spring.Suwatha.shared.exception.AccessDeniedException;
 import com.spring.Suwatha.shared.exception.IllegalStateException;
+import com.spring.Suwatha.shared.exception.NoTherapistAvailableException;
 import com.spring.Suwatha.shared.exception.ResourceNotFoundException;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import com.spring.Suwatha.user_module.event.TherapistAvailableEvent;
+import com.spring.Suwatha.user_module.event.TherapistStatusChangedEvent;
 import com.spring.Suwatha.user_module.repository.TherapistRepository;
-import com.spring.Suwatha.user_module.service.TherapistNotificationService;
+import com.spring.Suwatha.user_module.service.TherapistAvailabilityRegistry;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @AllArgsConstructor
@@ -33,64 +43,87 @@ public class SessionService {
     private TherapistRepository therapistRepository;
     private SessionRepository sessionRepository;
     private SessionFeedbackRepository feedbackRepository;
-    private EmailService emailService;
-    private  ActivityLogService activityLogService;
-    private TherapistNotificationService notificationService;
+    private TherapistAvailabilityRegistry therapistAvailabilityRegistry;
+    private ApplicationEventPublisher eventPublisher;
+    private SessionHeartbeatTokens sessionHeartbeatTokens;
     
     // -----------------------     Start session -----------------------------------------------
     
     @Transactional
     public SessionViewDto requestAndMatchSession(SessionRequestDto requestDto) {
-        // 1. Create an anonymous patient
+        return requestAndMatchSession(requestDto, null);
+    }
+    
+    /**
+     * @param idempotencyKey normalized Idempotency-Key of the request, stored on the session so that
+     *                       retries can be answered after the in-memory entry has expired; may be null
+     */
+    @Transactional
+    public SessionViewDto requestAndMatchSession(SessionRequestDto requestDto, String idempotencyKey) {
+        // 1. Claim an available therapist: registry pick + conditional AVAILABLE -> BUSY update
+        Therapist therapist = findAvailableTherapist(requestDto)
+                .orElseThrow(() -> new NoTherapistAvailableException("We're sorry, all therapists are currently busy. Please try again shortly."));
+        
+        // 2. Create an anonymous patient
         Patient patient = new Patient();
         patient.setAnonymousHandle("Patient-" + UUID.randomUUID().toString().substring(0, 8));
         Patient savedPatient = patientRepository.save(patient);
         
-        // 2. Find an available therapist
-        Therapist therapist = findAvailableTherapist(requestDto.getCommunicationType())
-                .orElseThrow(() -> new ResourceNotFoundException("We're sorry, all therapists are currently busy. Please try again shortly."));
-        
-        // 3. "Lock" the therapist to prevent them from being assigned to another session
-        therapist.setCurrentStatus(TherapistStatus.BUSY);
-        therapistRepository.save(therapist);
-        
-        // 4. Create the session
+        // 3. Create the session (the therapist was already flipped to BUSY by the atomic claim)
         Session session = new Session();
         session.setPatient(savedPatient);
         session.setTherapist(therapist);
         session.setCommunicationType(requestDto.getCommunicationType());
         session.setStatus(SessionStatus.ACTIVE);
         session.setStartTime(LocalDateTime.now());
+        session.setIdempotencyKey(idempotencyKey);
         Session savedSession = sessionRepository.save(session);
         
-        // 5. Log the activity for the admin panel
-        String logMessage = String.format("Dr. %s started a %s session with %s.",
-                therapist.getName(),
-                requestDto.getCommunicationType().name().toLowerCase(),
-                savedPatient.getAnonymousHandle()
-        );
-        activityLogService.logActivity(logMessage);
-    
-        String sessionUrl;
-        if(requestDto.getCommunicationType() == CommunicationType.CHAT){
-            sessionUrl = "https://your-app-domain.com/session/chat/" + savedSession.getId();
-        }else{
-            sessionUrl = "https://your-app-domain.com/session/video/" + savedSession.getId();
-        }
+        String sessionUrl = buildSessionUrl(savedSession);
         
-        // 6. Send notifications
-        
-        sendNotifications(therapist, savedPatient, sessionUrl,savedSession.getCommunicationType());
+        // 4. Activity log, therapist notification and email run after commit, off the request thread
+        eventPublisher.publishEvent(new SessionStartedEvent(
+                savedSession.getId(),
+                therapist.getId(),
+                therapist.getName(),
+                therapist.getEmail(),
+                savedPatient.getId(),
+                savedPatient.getAnonymousHandle(),
+                savedSession.getCommunicationType(),
+                sessionUrl,
+                savedSession.getStartTime()
+        ));
         
-        // 7. Return the session details to the patient frontend
-        return new SessionViewDto(savedSession.getId(), therapist.getId(), therapist.getName(), sessionUrl);
+        // 5. Return the session details to the patient frontend
+        return new SessionViewDto(savedSession.getId(), therapist.getId(), therapist.getName(), sessionUrl,
+                sessionHeartbeatTokens.issue(savedSession.getId()));
+    }
+    
+    
+    
+    public Optional<SessionViewDto> findByIdempotencyKey(String idempotencyKey) {
+        return sessionRepository.findByIdempotencyKey(idempotencyKey)
+                .map(session -> new SessionViewDto(
+                        session.getId(),
+                        session.getTherapist().getId(),
+                        session.getTherapist().getName(),
+                        buildSessionUrl(session),
+                        sessionHeartbeatTokens.issue(session.getId())));
+    }
+    
+    private String buildSessionUrl(Session session) {
+        if (session.getCommunicationType() == CommunicationType.CHAT) {
+            return "https://your-app-domain.com/session/chat/" + session.getId();
+        }
+        return "https://your-app-domain.com/session/video/" + session.getId();
     }
     
     
     
     //------------------------------------------ Cancel session ------------------------------------------
+    @Transactional
     public void cancelSession(Long sessionId, String reason , UserDetails currentUser){
-        Session session = sessionRepository.findById(sessionId)
+        Session session = sessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session with ID " + sessionId + " not found."));
     
         if (session.getStatus() == SessionStatus.COMPLETED || session.getStatus() == SessionStatus.CANCELLED) {
@@ -103,28 +136,66 @@ public class SessionService {
             throw new AccessDeniedException("You are not authorized to cancel this session.");
         }
     
+        SessionStatus previousStatus = session.getStatus();
         session.setStatus(SessionStatus.CANCELLED);
         session.setEndTime(LocalDateTime.now()); // Mark when it was cancelled
         therapist.setCurrentStatus(TherapistStatus.AVAILABLE);
     
         sessionRepository.save(session);
         therapistRepository.save(therapist);
-    
-        String logMessage = String.format("Dr. %s cancelled a session with %s. Reason: %s",
+        releaseTherapist(therapist);
+        eventPublisher.publishEvent(new SessionCancelledEvent(
+                session.getId(),
+                therapist.getId(),
                 therapist.getName(),
                 session.getPatient().getAnonymousHandle(),
+                session.getCommunicationType(),
+                previousStatus,
+                session.getStartTime(),
                 reason
-        );
-        activityLogService.logActivity(logMessage);
+        ));
+    }
     
     
+    /**
+     * Cancels a session that was matched for a waiting patient whose request timed out before the
+     * match could be delivered, so the therapist is not left BUSY on a session nobody will join.
+     */
+    @Transactional
+    public void cancelUndeliveredSession(Long sessionId) {
+        Session session = sessionRepository.findByIdForUpdate(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session with ID " + sessionId + " not found."));
+        if (session.getStatus() != SessionStatus.ACTIVE) {
+            return;
+        }
+        
+        session.setStatus(SessionStatus.CANCELLED);
+        session.setEndTime(LocalDateTime.now());
+        sessionRepository.save(session);
+        
+        Therapist therapist = session.getTherapist();
+        if (therapist.getCurrentStatus() == TherapistStatus.BUSY) {
+            therapist.setCurrentStatus(TherapistStatus.AVAILABLE);
+            therapistRepository.save(therapist);
+            releaseTherapist(therapist);
+        }
+        eventPublisher.publishEvent(new SessionCancelledEvent(
+                session.getId(),
+                therapist.getId(),
+                therapist.getName(),
+                session.getPatient().getAnonymousHandle(),
+                session.getCommunicationType(),
+                SessionStatus.ACTIVE,
+                session.getStartTime(),
+                "Patient left the waiting room before the match was delivered"
+        ));
     }
     
     
     //---------------------------- End session -----------------------------------------
     @Transactional
     public void endSession (Long sessionId, UserDetails currentUser ){
-        Session session = sessionRepository.findById(sessionId)
+        Session session = sessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session with ID \" + sessionId + \" not found."));
         
         if(session.getStatus() != SessionStatus.ACTIVE){
@@ -143,13 +214,72 @@ public class SessionService {
     
         therapist.setCurrentStatus(TherapistStatus.AVAILABLE);
         therapistRepository.save(therapist);
+        releaseTherapist(therapist);
+        publishSessionEnded(session);
+    }
     
-        // 5. Log the activity
-        String logMessage = String.format("Dr. %s completed a session with %s.",
-                therapist.getName(),
-                session.getPatient().getAnonymousHandle()
-        );
-        activityLogService.logActivity(logMessage);
+    
+    //---------------------------- Close stale sessions (reaper) -----------------------------------------
+    
+    /**
+     * Completes a batch of ACTIVE sessions whose heartbeat went stale, using one bulk UPDATE for the
+     * sessions and one for their therapists, then releases each therapist exactly like {@link #endSession}.
+     * The sessions are row-locked first, so a concurrent end or cancel either finished before (and the
+     * session is skipped here) or waits and then finds it completed; events go out only for rows that moved.
+     * @return the number of sessions that were actually closed
+     */
+    @Transactional
+    public int closeStaleSessions(List<Long> sessionIds) {
+        List<Session> sessions = sessionRepository.findWithParticipantsByIdInAndStatus(sessionIds, SessionStatus.ACTIVE);
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime endTime = LocalDateTime.now();
+        List<Long> activeIds = sessions.stream().map(Session::getId).toList();
+        List<Long> therapistIds = sessions.stream().map(session -> session.getTherapist().getId()).distinct().toList();
+        
+        // Both updates clear the persistence context, so the loaded sessions are detached from here on
+        int closed = sessionRepository.updateStatusForIds(activeIds, SessionStatus.ACTIVE, SessionStatus.COMPLETED, endTime);
+        
+        // Therapists that went OFFLINE meanwhile, or still run another session, stay as they are
+        List<Long> idleTherapistIds = therapistRepository.findIdleForUpdate(therapistIds, TherapistStatus.BUSY, SessionStatus.ACTIVE)
+                .stream().map(Therapist::getId).toList();
+        if (!idleTherapistIds.isEmpty()) {
+            therapistRepository.updateStatusForIdleIds(idleTherapistIds, TherapistStatus.BUSY, TherapistStatus.AVAILABLE, SessionStatus.ACTIVE);
+        }
+        
+        Set<Long> toRelease = new HashSet<>(idleTherapistIds);
+        for (Session session : sessions) {
+            session.setStatus(SessionStatus.COMPLETED);
+            session.setEndTime(endTime);
+            Therapist therapist = session.getTherapist();
+            if (toRelease.remove(therapist.getId())) {
+                therapist.setCurrentStatus(TherapistStatus.AVAILABLE);
+                releaseTherapist(therapist);
+            }
+            publishSessionEnded(session);
+        }
+        return closed;
+    }
+    
+    
+    private void releaseTherapist(Therapist therapist) {
+        therapistAvailabilityRegistry.refreshAfterCommit(therapist);
+        eventPublisher.publishEvent(new TherapistStatusChangedEvent(therapist.getId(), TherapistStatus.AVAILABLE, therapist.isActive()));
+        eventPublisher.publishEvent(new TherapistAvailableEvent(therapist.getId(), therapist.isHandSignSpecialist()));
+    }
+    
+    private void publishSessionEnded(Session session) {
+        eventPublisher.publishEvent(new SessionEndedEvent(
+                session.getId(),
+                session.getTherapist().getId(),
+                session.getTherapist().getName(),
+                session.getPatient().getAnonymousHandle(),
+                session.getCommunicationType(),
+                session.getStartTime(),
+                session.getEndTime()
+        ));
     }
     
     
@@ -178,24 +308,28 @@ public class SessionService {
         feedback.setComments(dto.getComments());
         
         feedbackRepository.save(feedback);
+        eventPublisher.publishEvent(new FeedbackSubmittedEvent(session.getId(), session.getTherapist().getId(), dto.getRating()));
     }
     
     
     
     
     
-    private Optional<Therapist> findAvailableTherapist(CommunicationType type) {
-        if (type == CommunicationType.SPECIAL_NEEDS) {
-            return therapistRepository.findFirstByIsActiveTrueAndCurrentStatusAndIsHandSignSpecialist(
-                    TherapistStatus.AVAILABLE, true);
-        } else {
-            // For general 'video' or 'chat', find any non-specialist therapist first to keep specialists free.
-            Optional<Therapist> therapist = therapistRepository.findFirstByIsActiveTrueAndCurrentStatusAndIsHandSignSpecialistFalse(
-                  TherapistStatus.AVAILABLE);
-            // If no non-specialist is found, it's okay to assign a specialist.
-            return therapist.isPresent() ? therapist : therapistRepository.findFirstByIsActiveTrueAndCurrentStatusAndIsHandSignSpecialist(
-                   TherapistStatus.AVAILABLE, true);
+    private Optional<Therapist> findAvailableTherapist(SessionRequestDto requestDto) {
+        Optional<Long> claimedId;
+        while ((claimedId = therapistAvailabilityRegistry.claim(requestDto.getCommunicationType(), requestDto.getSpecializationId())).isPresent()) {
+            Long therapistId = claimedId.get();
+            // The conditional UPDATE is the real lock: if another request (or instance) won this row,
+            // or the registry entry was stale, it is already out of the pool, so try the next candidate.
+            if (therapistRepository.claimIfAvailable(therapistId)) {
+                Therapist therapist = therapistRepository.findById(therapistId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Therapist with ID " + therapistId + " not found."));
+                therapistAvailabilityRegistry.returnOnRollback(therapist);
+                eventPublisher.publishEvent(new TherapistStatusChangedEvent(therapistId, TherapistStatus.BUSY, true));
+                return Optional.of(therapist);
+            }
         }
+        return Optional.empty();
     }
     
     
@@ -203,26 +337,6 @@ public class SessionService {
     
     
     
-    private void sendNotifications(Therapist therapist, Patient patient, String sessionUrl,CommunicationType session) {
-    
-        String notificationMessage = String.format("New %s session request from %s. Please join now.",
-                patient.getAnonymousHandle(),
-                session.name().toLowerCase());
-        notificationService.createNotification(therapist, notificationMessage, sessionUrl);
-        
-        // Send Email Notification
-        String emailSubject = "New Patient Session Request!";
-        String emailText = String.format("Hello Dr. %s,\n\nYou have a new session request from %s.\n\n" +
-                        "Please join the session immediately using this link: %s\n\nThank you.",
-                therapist.getName(), patient.getAnonymousHandle(), sessionUrl);
-        emailService.sendSimpleMail(therapist.getEmail(), emailSubject, emailText);
-        
-        // TODO: Implement Real-time WebSocket Notification
-        // In a real application, you would send a message over a WebSocket channel
-        // that the therapist's dashboard is subscribed to.
-        // e.g., simpMessagingTemplate.convertAndSendToUser(therapist.getEmail(), "/queue/sessions", newSessionPayload);
-        System.out.println("WebSocket notification sent to therapist: " + therapist.getEmail() + " for session URL: " + sessionUrl);
-    }
     
     
    
@@ -0,0 +1,297 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.session_module.dto.SessionRequestDto;
+import com.spring.Suwatha.session_module.dto.SessionViewDto;
+import com.spring.Suwatha.shared.exception.NoTherapistAvailableException;
+import com.spring.Suwatha.user_module.event.TherapistAvailableEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FIFO waiting room for patients that arrive while every matching therapist is busy.
+ * The HTTP request is held open as a {@link DeferredResult}; when a therapist frees up the
+ * oldest waiting patient is matched first instead of whoever happens to retry next.
+ */
+@Component
+public class SessionWaitingQueue {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionWaitingQueue.class);
+    private static final String ALL_BUSY_MESSAGE = "We're sorry, all therapists are currently busy. Please try again shortly.";
+    
+    private final SessionService sessionService;
+    private final SessionIdempotencyStore idempotencyStore;
+    private final Map<CommunicationType, Queue<WaitingRequest>> queues = new EnumMap<>(CommunicationType.class);
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicBoolean dispatchPending = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-queue-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Value("${session.queue.timeout-ms:60000}")
+    private long timeoutMs;
+    
+    @Value("${session.queue.max-waiting:500}")
+    private int maxWaiting;
+    
+    public SessionWaitingQueue(SessionService sessionService, SessionIdempotencyStore idempotencyStore) {
+        this.sessionService = sessionService;
+        this.idempotencyStore = idempotencyStore;
+        for (CommunicationType type : CommunicationType.values()) {
+            queues.put(type, new ConcurrentLinkedQueue<>());
+        }
+    }
+    
+    
+    //------------------------------ Request a session, waiting if everyone is busy ------------------------------
+    
+    /**
+     * @param idempotencyKey optional Idempotency-Key header; a repeated key is answered with the original
+     *                       session without running the matching path again
+     */
+    public DeferredResult<ResponseEntity<SessionViewDto>> requestOrWait(SessionRequestDto requestDto, String idempotencyKey) {
+        DeferredResult<ResponseEntity<SessionViewDto>> result = new DeferredResult<>(timeoutMs);
+        CommunicationType type = requestDto.getCommunicationType();
+        
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyStore.normalize(idempotencyKey);
+        if (key != null) {
+            Optional<SessionViewDto> previous = idempotencyStore.begin(key);
+            if (previous.isPresent()) {
+                result.setResult(ResponseEntity.ok(previous.get()));
+                return result;
+            }
+        }
+        
+        // Only match immediately when nobody competing for the same therapists is already waiting
+        if (!hasWaitersAhead(type)) {
+            try {
+                SessionViewDto session = sessionService.requestAndMatchSession(requestDto, key);
+                completeKey(key, session);
+                result.setResult(ResponseEntity.ok(session));
+                return result;
+            } catch (NoTherapistAvailableException allBusy) {
+                // fall through and join the queue
+            } catch (DataIntegrityViolationException ex) {
+                result.setResult(ResponseEntity.ok(replayDuplicate(key, ex)));
+                return result;
+            } catch (RuntimeException ex) {
+                abandonKey(key);
+                throw ex;
+            }
+        }
+        
+        if (waitingCount.incrementAndGet() > maxWaiting) {
+            waitingCount.decrementAndGet();
+            abandonKey(key);
+            result.setErrorResult(new NoTherapistAvailableException(ALL_BUSY_MESSAGE));
+            return result;
+        }
+        
+        WaitingRequest waiting = new WaitingRequest(requestDto, key, result, System.nanoTime());
+        Queue<WaitingRequest> queue = queues.get(type);
+        queue.add(waiting);
+        result.onTimeout(() -> {
+            // A waiter the dispatcher is matching right now stays queued; the dispatcher cleans it up
+            if (waiting.claim() && queue.remove(waiting)) {
+                waitingCount.decrementAndGet();
+                abandonKey(key);
+            }
+            result.setErrorResult(new NoTherapistAvailableException(ALL_BUSY_MESSAGE));
+        });
+        
+        // A therapist may have been released between the failed match and the enqueue
+        scheduleDispatch();
+        return result;
+    }
+    
+    private boolean hasWaitersAhead(CommunicationType type) {
+        if (type == CommunicationType.SPECIAL_NEEDS) {
+            return !queues.get(CommunicationType.SPECIAL_NEEDS).isEmpty();
+        }
+        // Video and chat share the general pool (and may fall back to specialists)
+        return !queues.get(CommunicationType.VIDEO).isEmpty() || !queues.get(CommunicationType.CHAT).isEmpty();
+    }
+    
+    
+    //------------------------------ Hand freed therapists to the head of the queue ------------------------------
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTherapistAvailable(TherapistAvailableEvent event) {
+        scheduleDispatch();
+    }
+    
+    private void scheduleDispatch() {
+        if (waitingCount.get() > 0 && dispatchPending.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                dispatchPending.set(false);
+                dispatch();
+            });
+        }
+    }
+    
+    /**
+     * Runs on the single dispatcher thread, so matches are handed out strictly oldest-first.
+     * A type is skipped for the rest of the run once a match for it finds no therapist.
+     * The head is claimed before matching so its timeout cannot fire in between unnoticed.
+     */
+    private void dispatch() {
+        Set<CommunicationType> exhausted = EnumSet.noneOf(CommunicationType.class);
+        WaitingRequest head;
+        while ((head = oldestWaiting(exhausted)) != null) {
+            CommunicationType type = head.requestDto.getCommunicationType();
+            Queue<WaitingRequest> queue = queues.get(type);
+            if (!head.claim()) {
+                // Timed out after the peek; the timeout handler already answered the client
+                drop(queue, head);
+                continue;
+            }
+            try {
+                SessionViewDto session = sessionService.requestAndMatchSession(head.requestDto, head.idempotencyKey);
+                if (queue.remove(head)) {
+                    waitingCount.decrementAndGet();
+                }
+                if (head.result.setResult(ResponseEntity.ok(session))) {
+                    completeKey(head.idempotencyKey, session);
+                } else {
+                    // The client is gone, so nobody will ever join this session: hand the therapist back
+                    log.warn("Waiting patient for session {} timed out before the match was delivered, cancelling it", session.getSessionId());
+                    abandonKey(head.idempotencyKey);
+                    sessionService.cancelUndeliveredSession(session.getSessionId());
+                }
+            } catch (NoTherapistAvailableException allBusy) {
+                head.release();
+                if (head.result.isSetOrExpired()) {
+                    drop(queue, head);
+                }
+                exhausted.add(type);
+                if (type != CommunicationType.SPECIAL_NEEDS) {
+                    // General requests already fell back to specialists, so every pool is empty
+                    exhausted.addAll(EnumSet.allOf(CommunicationType.class));
+                }
+            } catch (DataIntegrityViolationException ex) {
+                if (queue.remove(head)) {
+                    waitingCount.decrementAndGet();
+                }
+                try {
+                    head.result.setResult(ResponseEntity.ok(replayDuplicate(head.idempotencyKey, ex)));
+                } catch (RuntimeException notReplayable) {
+                    head.result.setErrorResult(notReplayable);
+                }
+            } catch (RuntimeException ex) {
+                if (queue.remove(head)) {
+                    waitingCount.decrementAndGet();
+                }
+                abandonKey(head.idempotencyKey);
+                head.result.setErrorResult(ex);
+            }
+        }
+    }
+    
+    private WaitingRequest oldestWaiting(Set<CommunicationType> exhausted) {
+        WaitingRequest oldest = null;
+        for (Map.Entry<CommunicationType, Queue<WaitingRequest>> entry : queues.entrySet()) {
+            if (exhausted.contains(entry.getKey())) {
+                continue;
+            }
+            Queue<WaitingRequest> queue = entry.getValue();
+            WaitingRequest head = queue.peek();
+            // Drop requests whose client already gave up
+            while (head != null && head.result.isSetOrExpired()) {
+                drop(queue, head);
+                head = queue.peek();
+            }
+            if (head != null && (oldest == null || head.enqueuedAt - oldest.enqueuedAt < 0)) {
+                oldest = head;
+            }
+        }
+        return oldest;
+    }
+    
+    private void drop(Queue<WaitingRequest> queue, WaitingRequest waiting) {
+        if (queue.remove(waiting)) {
+            waitingCount.decrementAndGet();
+            abandonKey(waiting.idempotencyKey);
+        }
+    }
+    
+    /**
+     * The session insert hit the unique idempotency_key constraint: a request with the same key was matched
+     * concurrently (on another instance, or after its in-flight marker was evicted), so answer with that session.
+     */
+    private SessionViewDto replayDuplicate(String key, DataIntegrityViolationException ex) {
+        Optional<SessionViewDto> stored = key == null ? Optional.empty() : idempotencyStore.findStored(key);
+        if (stored.isEmpty()) {
+            abandonKey(key);
+            throw ex;
+        }
+        return stored.get();
+    }
+    
+    private void completeKey(String key, SessionViewDto session) {
+        if (key != null) {
+            idempotencyStore.complete(key, session);
+        }
+    }
+    
+    private void abandonKey(String key) {
+        if (key != null) {
+            idempotencyStore.abandon(key);
+        }
+    }
+    
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+    
+    
+    private static final class WaitingRequest {
+        private final SessionRequestDto requestDto;
+        private final String idempotencyKey;
+        private final DeferredResult<ResponseEntity<SessionViewDto>> result;
+        private final long enqueuedAt;
+        // Owned by whoever sets it first: the dispatcher while matching, or the timeout handler
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        
+        private WaitingRequest(SessionRequestDto requestDto, String idempotencyKey, DeferredResult<ResponseEntity<SessionViewDto>> result, long enqueuedAt) {
+            this.requestDto = requestDto;
+            this.idempotencyKey = idempotencyKey;
+            this.result = result;
+            this.enqueuedAt = enqueuedAt;
+        }
+        
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+        
+        private void release() {
+            claimed.set(false);
+        }
+    }
+}
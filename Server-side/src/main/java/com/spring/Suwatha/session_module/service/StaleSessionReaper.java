@@ -0,0 +1,77 @@
+package com.spring.Suwatha.session_module.service;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closes ACTIVE sessions whose heartbeat has gone stale (e.g. the therapist closed the browser
+ * without ending the session) and returns their therapists to the matching pool.
+ * Off unless {@code session.reaper.enabled=true}: only turn it on once the session clients send heartbeats,
+ * otherwise every session would be closed after {@code session.reaper.stale-after-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "session.reaper.enabled", havingValue = "true")
+public class StaleSessionReaper {
+    
+    private static final Logger log = LoggerFactory.getLogger(StaleSessionReaper.class);
+    
+    private final SessionHeartbeatRegistry heartbeatRegistry;
+    private final SessionService sessionService;
+    private final Counter reapedCounter;
+    private final AtomicInteger reapedLastRun = new AtomicInteger();
+    
+    @Value("${session.reaper.stale-after-ms:300000}")
+    private long staleAfterMs;
+    
+    @Value("${session.reaper.batch-size:200}")
+    private int batchSize;
+    
+    public StaleSessionReaper(SessionHeartbeatRegistry heartbeatRegistry, SessionService sessionService, MeterRegistry meterRegistry) {
+        this.heartbeatRegistry = heartbeatRegistry;
+        this.sessionService = sessionService;
+        this.reapedCounter = Counter.builder("sessions.reaper.reaped")
+                .description("ACTIVE sessions closed because their heartbeat went stale")
+                .register(meterRegistry);
+        Gauge.builder("sessions.reaper.last_run", reapedLastRun, AtomicInteger::get)
+                .description("Sessions reaped by the most recent reaper run")
+                .register(meterRegistry);
+        Gauge.builder("sessions.heartbeat.tracked", heartbeatRegistry, SessionHeartbeatRegistry::trackedCount)
+                .description("ACTIVE sessions currently tracked for heartbeats")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${session.reaper.interval-ms:60000}")
+    public void reapStaleSessions() {
+        List<Long> stale = heartbeatRegistry.findStale(System.currentTimeMillis() - staleAfterMs);
+        int reaped = 0;
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            List<Long> batch = stale.subList(from, Math.min(from + batchSize, stale.size()));
+            try {
+                reaped += sessionService.closeStaleSessions(batch);
+            } catch (RuntimeException ex) {
+                // Keep tracking the batch: its heartbeats stay stale, so the next run retries it
+                log.error("Failed to reap stale sessions {}, retrying on the next run", batch, ex);
+                continue;
+            }
+            // Either closed now, or already ended elsewhere; stop tracking both
+            batch.forEach(heartbeatRegistry::forget);
+        }
+        
+        reapedLastRun.set(reaped);
+        reapedCounter.increment(reaped);
+        if (reaped > 0) {
+            log.info("Stale session reaper closed {} session(s) ({} stale heartbeats)", reaped, stale.size());
+        }
+    }
+}
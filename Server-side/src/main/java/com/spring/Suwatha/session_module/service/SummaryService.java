@@ -1,10 +1,12 @@
 package com.spring.Suwatha.session_module.service;
 
 
+import com.spring.Suwatha.analytics_module.service.ReportDimensionService;
 import com.spring.Suwatha.session_module.dto.SessionStatus;
 import com.spring.Suwatha.session_module.dto.SessionSummaryCreateDto;
 import com.spring.Suwatha.session_module.entity.Session;
 import com.spring.Suwatha.session_module.entity.SessionSummary;
+import com.spring.Suwatha.session_module.event.SessionSummaryCreatedEvent;
 import com.spring.Suwatha.session_module.repo.SessionRepository;
 import com.spring.Suwatha.session_module.repo.SessionSummaryRepository;
 import com.spring.Suwatha.shared.exception.AccessDeniedException;
@@ -12,6 +14,7 @@ import com.spring.Suwatha.shared.exception.IllegalStateException;
 import com.spring.Suwatha.shared.exception.ResourceNotFoundException;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -22,10 +25,15 @@ public class SummaryService {
     
     private final SessionRepository sessionRepository;
     private final SessionSummaryRepository summaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReportDimensionService reportDimensionService;
     
-    public SummaryService(SessionRepository sessionRepository, SessionSummaryRepository summaryRepository) {
+    public SummaryService(SessionRepository sessionRepository, SessionSummaryRepository summaryRepository, ApplicationEventPublisher eventPublisher,
+                          ReportDimensionService reportDimensionService) {
         this.sessionRepository = sessionRepository;
         this.summaryRepository = summaryRepository;
+        this.eventPublisher = eventPublisher;
+        this.reportDimensionService = reportDimensionService;
     }
     
     @Transactional
@@ -64,12 +72,28 @@ public class SummaryService {
         summary.setIdentifiedIllness(dto.getIdentifiedIllness());
         summary.setTherapistPrivateNotes(dto.getTherapistPrivateNotes());
         summary.setCity(dto.getCity());
+        summary.setIllnessDimension(reportDimensionService.resolveIllness(dto.getIdentifiedIllness()));
+        summary.setCityDimension(reportDimensionService.resolveCity(dto.getCity()));
         summary.setAge(dto.getAge());
         summary.setGender(dto.getGender());
         summary.setDurationInMinutes((int)durationInMinutes);
         summary.setRiskAssessment(dto.getRiskAssessment());
         
         summaryRepository.save(summary);
+        eventPublisher.publishEvent(new SessionSummaryCreatedEvent(
+                session.getId(),
+                session.getPatient().getId(),
+                therapist.getId(),
+                session.getStartTime(),
+                summary.getIdentifiedIllness(),
+                summary.getCity(),
+                summary.getIllnessDimension() != null ? summary.getIllnessDimension().getId() : null,
+                summary.getCityDimension() != null ? summary.getCityDimension().getId() : null,
+                summary.getAge(),
+                summary.getGender(),
+                summary.getRiskAssessment(),
+                summary.getDurationInMinutes()
+        ));
     }
 
 }
@@ -0,0 +1,37 @@
+package com.spring.Suwatha.shared.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    
+    /**
+     * Bounded pool for after-commit session side effects (logs, notifications, email).
+     * When the queue is full the submitting thread runs the task itself, so events are
+     * slowed down rather than dropped.
+     */
+    @Bean(name = "sessionEventExecutor")
+    public Executor sessionEventExecutor(
+            @Value("${async.session-events.core-size:2}") int coreSize,
+            @Value("${async.session-events.max-size:8}") int maxSize,
+            @Value("${async.session-events.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("session-events-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -49,7 +49,8 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
                                 "/file/**",
-                                "/api/sessions/**"
+                                "/api/sessions/**",
+                                "/ws/**" // STOMP handshake; the CONNECT frame is authenticated by JwtChannelInterceptor
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,144 @@
+package com.spring.Suwatha.shared.email;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the email outbox in batches. Each batch is handed to {@link JavaMailSender#send(SimpleMailMessage...)},
+ * which delivers all messages over a single SMTP connection. Failed messages are retried with
+ * exponential backoff until {@code email.outbox.max-attempts} is reached.
+ */
+@Component
+public class EmailOutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxRelay.class);
+    private static final String FROM_ADDRESS = "noreply@mentalhealthplatform.com";
+    
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+    
+    @Value("${email.outbox.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+    
+    @Value("${email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+    
+    public EmailOutboxRelay(EmailOutboxRepository outboxRepository, JavaMailSender mailSender) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+    }
+    
+    
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:5000}")
+    public void relay() {
+        List<EmailOutbox> batch;
+        do {
+            batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    EmailOutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+    
+    
+    private void sendBatch(List<EmailOutbox> batch) {
+        Map<SimpleMailMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+            byMessage.put(messages[i], batch.get(i));
+        }
+        
+        Map<Object, Exception> failures;
+        try {
+            mailSender.send(messages);
+            failures = Collections.emptyMap();
+        } catch (MailSendException ex) {
+            // Partial failure: only the listed messages failed, the rest were delivered
+            failures = ex.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, ex);
+            }
+        } catch (MailException ex) {
+            // Connection or authentication problem: nothing in this batch went out
+            failures = allFailed(messages, ex);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<SimpleMailMessage, EmailOutbox> entry : byMessage.entrySet()) {
+            EmailOutbox outbox = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                outbox.setStatus(EmailOutboxStatus.SENT);
+                outbox.setSentAt(now);
+                outbox.setLastError(null);
+            } else {
+                markFailedAttempt(outbox, failure, now);
+            }
+        }
+        outboxRepository.saveAll(batch);
+        
+        if (!failures.isEmpty()) {
+            log.warn("Email outbox: {} of {} messages failed in this batch", failures.size(), batch.size());
+        }
+    }
+    
+    private void markFailedAttempt(EmailOutbox outbox, Exception failure, LocalDateTime now) {
+        int attempts = outbox.getAttempts() + 1;
+        outbox.setAttempts(attempts);
+        outbox.setLastError(truncate(failure.getMessage()));
+        if (attempts >= maxAttempts) {
+            outbox.setStatus(EmailOutboxStatus.FAILED);
+            return;
+        }
+        long backoffMs = Math.min(initialBackoffMs << Math.min(attempts - 1, 30), maxBackoffMs);
+        outbox.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+    }
+    
+    private Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception ex) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, ex);
+        }
+        return failures;
+    }
+    
+    private SimpleMailMessage toMessage(EmailOutbox outbox) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(FROM_ADDRESS);
+        message.setTo(outbox.getRecipient());
+        message.setSubject(outbox.getSubject());
+        message.setText(outbox.getBody());
+        return message;
+    }
+    
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.spring.Suwatha.shared.email;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    
+    // Next batch of messages that are due for a (re)try, oldest first.
+    List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            EmailOutboxStatus status, LocalDateTime now, Pageable pageable);
+}
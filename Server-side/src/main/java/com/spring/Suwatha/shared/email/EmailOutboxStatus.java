@@ -0,0 +1,7 @@
+package com.spring.Suwatha.shared.email;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
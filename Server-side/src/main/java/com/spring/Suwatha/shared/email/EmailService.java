@@ -2,26 +2,25 @@ package com.spring.Suwatha.shared.email;
 
 
 import lombok.AllArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @AllArgsConstructor
 @Service
 public class EmailService {
     
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository outboxRepository;
     
   
     
+    /**
+     * Queues the mail in the email_outbox table as part of the caller's transaction.
+     * Delivery happens asynchronously in {@link EmailOutboxRelay}.
+     */
+    @Transactional
     public void sendSimpleMail(String to, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("noreply@mentalhealthplatform.com");
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        outboxRepository.save(new EmailOutbox(to, subject, text));
     }
 
 }
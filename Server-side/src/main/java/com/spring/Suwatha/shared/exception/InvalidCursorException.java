@@ -0,0 +1,8 @@
+package com.spring.Suwatha.shared.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
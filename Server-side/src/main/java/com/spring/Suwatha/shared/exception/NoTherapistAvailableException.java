@@ -0,0 +1,12 @@
+package com.spring.Suwatha.shared.exception;
+
+/**
+ * Every therapist who could take the requested session is busy. Kept distinct from a genuinely missing
+ * entity so the waiting queue only parks requests for this case; still answered like a not-found.
+ */
+public class NoTherapistAvailableException extends ResourceNotFoundException {
+    
+    public NoTherapistAvailableException(String message) {
+        super(message);
+    }
+}
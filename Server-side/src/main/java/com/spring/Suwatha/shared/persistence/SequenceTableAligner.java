@@ -0,0 +1,56 @@
+package com.spring.Suwatha.shared.persistence;
+
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * The high-volume entities use pooled sequence ids so Hibernate can batch their inserts.
+ * MySQL has no sequences, so Hibernate emulates each one with a single-row table (next_val).
+ * Those tables start at 1 when first created, while the entity tables may already hold rows
+ * written with AUTO_INCREMENT ids. This bumps every sequence past the current MAX(id)
+ * before the application starts taking traffic.
+ */
+@Component
+public class SequenceTableAligner {
+    
+    /** Ids handed out per sequence round-trip; shared by every pooled generator. */
+    public static final int ALLOCATION_SIZE = 50;
+    
+    private static final Logger log = LoggerFactory.getLogger(SequenceTableAligner.class);
+    
+    // sequence table -> entity table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "patients_seq", "patients",
+            "sessions_seq", "sessions",
+            "activity_logs_seq", "activity_logs",
+            "session_feedback_seq", "session_feedback",
+            "therapist_notifications_seq", "therapist_notifications",
+            "email_outbox_seq", "email_outbox"
+    );
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Depending on the EntityManagerFactory guarantees the schema update (and sequence tables) ran first
+    public SequenceTableAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequenceTable, entityTable) -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, " +
+                            "(SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + entityTable + "))");
+            if (updated == 0) {
+                log.warn("Sequence table {} has no row; it will be initialised by Hibernate on first use", sequenceTable);
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.spring.Suwatha.shared.ratelimit;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a GCRA (generic cell rate algorithm): the whole bucket state
+ * is a single "theoretical arrival time" updated with compare-and-set, so concurrent callers never block.
+ */
+public class TokenBucket {
+    
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+    
+    /**
+     * @param permitsPerSecond sustained refill rate
+     * @param burst            how many requests may arrive back-to-back on a full bucket
+     */
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+    
+    /**
+     * Takes one token if available.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long waitNanos = next - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /** A bucket that has fully refilled carries no state and can be dropped. */
+    public boolean isIdle(long nowNanos) {
+        return theoreticalArrivalNanos.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,137 @@
+package com.spring.Suwatha.shared.search;
+
+
+import com.spring.Suwatha.session_module.entity.Patient;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.session_module.repo.PatientRepository;
+import com.spring.Suwatha.user_module.entity.Therapist;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Trigram indexes over therapist names and patient handles, used by the admin/report search box.
+ * Turns {@code lower(name) LIKE '%term%'} into {@code id IN (candidates) AND lower(name) LIKE '%term%'},
+ * falling back to the plain LIKE whenever the index can't narrow the search.
+ */
+@Component
+public class NameSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(NameSearchIndex.class);
+    
+    private final TherapistRepository therapistRepository;
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TrigramIndex therapistNames;
+    private final TrigramIndex patientHandles;
+    
+    public NameSearchIndex(TherapistRepository therapistRepository, PatientRepository patientRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${search.trigram.max-postings:20000}") int maxPostings,
+                           @Value("${search.trigram.max-candidates:2000}") int maxCandidates) {
+        this.therapistRepository = therapistRepository;
+        this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.therapistNames = new TrigramIndex(true, maxPostings, maxCandidates);
+        this.patientHandles = new TrigramIndex(false, maxPostings, maxCandidates);
+    }
+    
+    
+    //------------------------------ Predicates for the list queries ------------------------------
+    
+    public Predicate therapistNameMatches(CriteriaBuilder cb, From<?, Therapist> therapist, String searchTerm) {
+        return matches(cb, therapistNames, therapist.get("id"), therapist.get("name"), searchTerm);
+    }
+    
+    public Predicate patientHandleMatches(CriteriaBuilder cb, From<?, Patient> patient, String searchTerm) {
+        return matches(cb, patientHandles, patient.get("id"), patient.get("anonymousHandle"), searchTerm);
+    }
+    
+    private Predicate matches(CriteriaBuilder cb, TrigramIndex index, Path<Long> id, Path<String> text, String searchTerm) {
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        Predicate like = cb.like(cb.lower(text), "%" + term + "%");
+        Optional<List<Long>> candidates = index.search(term);
+        if (candidates.isEmpty()) {
+            return like;
+        }
+        if (candidates.get().isEmpty()) {
+            return cb.disjunction();
+        }
+        return cb.and(id.in(candidates.get()), like);
+    }
+    
+    
+    //------------------------------ Maintenance ------------------------------
+    
+    // Runs in the session's transaction; an entry left behind by a rollback is filtered out by the LIKE
+    @EventListener
+    public void onSessionStarted(SessionStartedEvent event) {
+        patientHandles.add(event.getPatientId(), event.getPatientHandle());
+    }
+    
+    private void indexTherapist(Therapist therapist) {
+        therapistNames.add(therapist.getId(), therapist.getName());
+    }
+    
+    /**
+     * Re-indexes a therapist once the surrounding transaction commits. A rename is not append-only:
+     * indexing it before commit would drop the old name's trigrams even if the rename rolls back.
+     */
+    public void indexTherapistAfterCommit(Therapist therapist) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexTherapist(therapist);
+            return;
+        }
+        Long therapistId = therapist.getId();
+        String name = therapist.getName();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                therapistNames.add(therapistId, name);
+            }
+        });
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::load, "name-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    private void load() {
+        try {
+            therapistRepository.findAll().forEach(this::indexTherapist);
+            therapistNames.markReady();
+            
+            long start = System.currentTimeMillis();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = patientRepository.streamAllHandles()) {
+                    rows.forEach(row -> patientHandles.add((Long) row[0], (String) row[1]));
+                }
+            });
+            patientHandles.markReady();
+            log.info("Name search index loaded in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            log.error("Failed to load the name search index; searches will use LIKE scans", ex);
+        }
+    }
+}
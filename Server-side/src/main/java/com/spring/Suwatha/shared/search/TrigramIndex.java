@@ -0,0 +1,188 @@
+package com.spring.Suwatha.shared.search;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index answering "which ids contain this substring" (case-insensitive) with
+ * posting-list intersection instead of a scan. Results are a superset: callers still apply the LIKE
+ * to the returned candidates, which also makes stale or rolled-back entries harmless.
+ * <p>
+ * Postings are sorted int arrays. Trigrams that occur in more than {@code maxPostingsPerTrigram}
+ * documents (e.g. the shared "Patient-" prefix) are dropped as too broad and ignored by queries.
+ */
+public class TrigramIndex {
+    
+    private final Map<String, Postings> postings = new ConcurrentHashMap<>();
+    private final Set<String> broadTrigrams = ConcurrentHashMap.newKeySet();
+    // Only kept for indexes whose text can change, so the old trigrams can be removed
+    private final Map<Integer, String> documents;
+    private final int maxPostingsPerTrigram;
+    private final int maxCandidates;
+    private volatile boolean ready;
+    
+    public TrigramIndex(boolean updatable, int maxPostingsPerTrigram, int maxCandidates) {
+        this.documents = updatable ? new ConcurrentHashMap<>() : null;
+        this.maxPostingsPerTrigram = maxPostingsPerTrigram;
+        this.maxCandidates = maxCandidates;
+    }
+    
+    
+    //------------------------------ Maintenance ------------------------------
+    
+    public void add(long id, String text) {
+        if (text == null || id > Integer.MAX_VALUE || id < 0) {
+            return;
+        }
+        int docId = (int) id;
+        if (documents != null) {
+            String previous = documents.put(docId, text);
+            if (previous != null) {
+                trigrams(previous).forEach(gram -> removePosting(gram, docId));
+            }
+        }
+        for (String gram : trigrams(text)) {
+            if (broadTrigrams.contains(gram)) {
+                continue;
+            }
+            Postings list = postings.computeIfAbsent(gram, g -> new Postings());
+            if (list.add(docId) > maxPostingsPerTrigram) {
+                broadTrigrams.add(gram);
+                postings.remove(gram);
+            }
+        }
+    }
+    
+    public void clear() {
+        ready = false;
+        postings.clear();
+        broadTrigrams.clear();
+        if (documents != null) {
+            documents.clear();
+        }
+    }
+    
+    // Set once the initial load has finished; until then every search falls back to LIKE
+    public void markReady() {
+        ready = true;
+    }
+    
+    private void removePosting(String gram, int docId) {
+        Postings list = postings.get(gram);
+        if (list != null) {
+            list.remove(docId);
+        }
+    }
+    
+    
+    //------------------------------ Query ------------------------------
+    
+    /**
+     * @return candidate ids (possibly empty, meaning nothing can match), or empty if the index can't help:
+     *         not loaded yet, term shorter than a trigram, only broad trigrams, or too many candidates
+     */
+    public Optional<List<Long>> search(String term) {
+        if (!ready || term == null || term.length() < 3) {
+            return Optional.empty();
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : trigrams(term)) {
+            if (broadTrigrams.contains(gram)) {
+                continue;
+            }
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return Optional.of(List.of());
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        // Start from the rarest trigram and probe the others with binary search
+        lists.sort(Comparator.comparingInt(Postings::size));
+        int[] candidates = lists.get(0).snapshot();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            Postings list = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (list.contains(candidates[j])) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+        if (count > maxCandidates) {
+            return Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            ids.add((long) candidates[j]);
+        }
+        return Optional.of(ids);
+    }
+    
+    static Set<String> trigrams(String text) {
+        String normalized = text.toLowerCase(Locale.ROOT);
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + 3));
+        }
+        return grams;
+    }
+    
+    
+    /**
+     * Sorted, de-duplicated int posting list. Ids are mostly appended in increasing order,
+     * so the common add is an amortised O(1) append.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+        
+        synchronized int add(int id) {
+            int position = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return size;
+            }
+            int insertAt = -(position + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            return ++size;
+        }
+        
+        synchronized void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+        
+        synchronized boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+        
+        synchronized int[] snapshot() {
+            return Arrays.copyOf(ids, size);
+        }
+        
+        synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.spring.Suwatha.shared.security;
+
+import lombok.AllArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the same JWT used for the REST API.
+ * The token is read from the "Authorization: Bearer ..." native header of the CONNECT frame,
+ * and the resulting principal name (the user's email) is what user destinations are routed by.
+ */
+@AllArgsConstructor
+@Component
+public class JwtChannelInterceptor implements ChannelInterceptor {
+    
+    private final UserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authorizationHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+                throw new MessagingException("Missing JWT in STOMP CONNECT frame");
+            }
+            try {
+                String jwt = authorizationHeader.substring(7);
+                UserDetails userDetails = userDetailsService.loadUserByUsername(jwtUtil.extractUsername(jwt));
+                if (!jwtUtil.validateToken(jwt, userDetails)) {
+                    throw new MessagingException("Invalid JWT");
+                }
+                accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            } catch (MessagingException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new MessagingException("Invalid JWT: " + ex.getMessage());
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            // Only per-user queues are exposed; raw broker destinations would leak other therapists' messages
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith("/user/queue/")) {
+                throw new MessagingException("Subscription to " + destination + " is not allowed");
+            }
+        }
+        return message;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -12,4 +14,7 @@ public class TherapistDashboardStatsDto {
     private long sessionsToday;
     private long sessionsThisWeek;
     private double averageRating;
+    private long totalSessions;
+    private long ratingCount;
+    private List<Long> ratingHistogram; // counts of 1..5 star ratings
 }
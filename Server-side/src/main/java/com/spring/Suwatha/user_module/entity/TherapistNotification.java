@@ -1,5 +1,6 @@
 package com.spring.Suwatha.user_module.entity;
 
+import com.spring.Suwatha.shared.persistence.SequenceTableAligner;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +16,8 @@ import java.time.LocalDateTime;
 public class TherapistNotification {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "therapist_notifications_seq")
+    @SequenceGenerator(name = "therapist_notifications_seq", sequenceName = "therapist_notifications_seq", allocationSize = SequenceTableAligner.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
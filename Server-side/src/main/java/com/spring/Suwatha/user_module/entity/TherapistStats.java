@@ -0,0 +1,64 @@
+package com.spring.Suwatha.user_module.entity;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Running per-therapist totals behind the therapist dashboard. Rows are only written through the
+ * upserts in TherapistStatsRepository, in the same transaction as the session or feedback they count.
+ * The today/week counters belong to {@code todayDate}/{@code weekStart} and restart when those roll over.
+ */
+@Entity
+@Table(name = "therapist_stats")
+@Data
+@NoArgsConstructor
+public class TherapistStats {
+    
+    @Id
+    @Column(name = "therapist_id")
+    private Long therapistId;
+    
+    @Column(name = "lifetime_sessions", nullable = false)
+    private long lifetimeSessions;
+    
+    @Column(name = "sessions_today", nullable = false)
+    private long sessionsToday;
+    
+    @Column(name = "today_date")
+    private LocalDate todayDate;
+    
+    @Column(name = "sessions_this_week", nullable = false)
+    private long sessionsThisWeek;
+    
+    @Column(name = "week_start")
+    private LocalDate weekStart;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+    
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+    
+    // Histogram: number of 1..5 star ratings
+    @Column(name = "rating_count_1", nullable = false)
+    private long ratingCount1;
+    
+    @Column(name = "rating_count_2", nullable = false)
+    private long ratingCount2;
+    
+    @Column(name = "rating_count_3", nullable = false)
+    private long ratingCount3;
+    
+    @Column(name = "rating_count_4", nullable = false)
+    private long ratingCount4;
+    
+    @Column(name = "rating_count_5", nullable = false)
+    private long ratingCount5;
+}
@@ -0,0 +1,15 @@
+package com.spring.Suwatha.user_module.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a therapist becomes free to take a new session
+ * (session ended or cancelled, or the therapist switched themselves to AVAILABLE).
+ */
+@Getter
+@AllArgsConstructor
+public class TherapistAvailableEvent {
+    private final Long therapistId;
+    private final boolean handSignSpecialist;
+}
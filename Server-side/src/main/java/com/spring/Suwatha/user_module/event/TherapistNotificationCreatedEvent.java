@@ -0,0 +1,12 @@
+package com.spring.Suwatha.user_module.event;
+
+import com.spring.Suwatha.user_module.dto.therapist.TherapistNotificationViewDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TherapistNotificationCreatedEvent {
+    private final String therapistEmail;
+    private final TherapistNotificationViewDto notification;
+}
@@ -0,0 +1,17 @@
+package com.spring.Suwatha.user_module.event;
+
+import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a therapist's status or active flag may have changed (create, profile update,
+ * manual status change, session claim and release). Carries the new state, not the old one.
+ */
+@Getter
+@AllArgsConstructor
+public class TherapistStatusChangedEvent {
+    private final Long therapistId;
+    private final TherapistStatus status;
+    private final boolean active;
+}
@@ -1,10 +1,17 @@
 package com.spring.Suwatha.user_module.repository;
 
+import com.spring.Suwatha.session_module.dto.SessionStatus;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -12,12 +19,50 @@ import java.util.Optional;
 public interface TherapistRepository extends JpaRepository<Therapist,Long> {
     Optional<Therapist> findByEmail(String email);
     
-    // Finds the first available therapist who is active and matches the hand-sign specialist requirement.
-    Optional<Therapist> findFirstByIsActiveTrueAndCurrentStatusAndIsHandSignSpecialist(
-            TherapistStatus status, boolean isHandSignSpecialist);
+    // id, current status and active flag of every therapist, for the dashboard counters
+    @Query("SELECT t.id, t.currentStatus, t.isActive FROM Therapist t")
+    List<Object[]> findAllStatusSnapshots();
     
-    // Finds the first available therapist who is active and NOT a hand-sign specialist.
-    Optional<Therapist> findFirstByIsActiveTrueAndCurrentStatusAndIsHandSignSpecialistFalse(
-            TherapistStatus status);
+    // Used to rebuild the in-memory availability registry at startup.
+    List<Therapist> findByIsActiveTrueAndCurrentStatus(TherapistStatus status);
+    
+    // Single-row compare-and-set on current_status; returns 1 only for the caller that won the row.
+    @Modifying
+    @Query("UPDATE Therapist t SET t.currentStatus = :newStatus " +
+            "WHERE t.id = :therapistId AND t.isActive = true AND t.currentStatus = :expectedStatus")
+    int compareAndSetStatus(@Param("therapistId") Long therapistId,
+                            @Param("expectedStatus") TherapistStatus expectedStatus,
+                            @Param("newStatus") TherapistStatus newStatus);
+    
+    /**
+     * Atomically flips an active therapist from AVAILABLE to BUSY.
+     * @return true if this call claimed the therapist, false if someone else got there first.
+     */
+    default boolean claimIfAvailable(Long therapistId) {
+        return compareAndSetStatus(therapistId, TherapistStatus.AVAILABLE, TherapistStatus.BUSY) == 1;
+    }
+    
+    // Locks the therapists the stale-session reaper may release: still in the expected status and without another open session.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT t FROM Therapist t
+        WHERE t.id IN :therapistIds AND t.currentStatus = :expectedStatus
+        AND NOT EXISTS (SELECT s.id FROM Session s WHERE s.therapist.id = t.id AND s.status = :openSessionStatus)
+    """)
+    List<Therapist> findIdleForUpdate(@Param("therapistIds") List<Long> therapistIds,
+                                      @Param("expectedStatus") TherapistStatus expectedStatus,
+                                      @Param("openSessionStatus") SessionStatus openSessionStatus);
+    
+    // Batched release used by the stale-session reaper; only therapists still BUSY and without another open session are touched.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Therapist t SET t.currentStatus = :newStatus
+        WHERE t.id IN :therapistIds AND t.currentStatus = :expectedStatus
+        AND NOT EXISTS (SELECT s.id FROM Session s WHERE s.therapist.id = t.id AND s.status = :openSessionStatus)
+    """)
+    int updateStatusForIdleIds(@Param("therapistIds") List<Long> therapistIds,
+                               @Param("expectedStatus") TherapistStatus expectedStatus,
+                               @Param("newStatus") TherapistStatus newStatus,
+                               @Param("openSessionStatus") SessionStatus openSessionStatus);
     
 }
@@ -0,0 +1,106 @@
+package com.spring.Suwatha.user_module.repository;
+
+
+import com.spring.Suwatha.user_module.entity.TherapistStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface TherapistStatsRepository extends JpaRepository<TherapistStats, Long> {
+    
+    // Stats row of the therapist with this email, in one indexed lookup
+    @Query("SELECT ts FROM TherapistStats ts, Therapist t WHERE t.email = :email AND ts.therapistId = t.id")
+    Optional<TherapistStats> findByTherapistEmail(@Param("email") String email);
+    
+    
+    // Upserts: create the row on first use, otherwise update in place. The today/week counters restart
+    // when the stored day/week differs; they are assigned before the date columns, which MySQL relies on.
+    @Modifying
+    @Query(
+            value = """
+            INSERT INTO therapist_stats (therapist_id, lifetime_sessions, sessions_today, today_date, sessions_this_week, week_start,
+                                         rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5)
+            VALUES (:therapistId, 1, 1, :today, 1, :weekStart, 0, 0, 0, 0, 0, 0, 0)
+            ON DUPLICATE KEY UPDATE
+                lifetime_sessions = lifetime_sessions + 1,
+                sessions_today = IF(today_date = :today, sessions_today + 1, 1),
+                today_date = :today,
+                sessions_this_week = IF(week_start = :weekStart, sessions_this_week + 1, 1),
+                week_start = :weekStart
+        """,
+            nativeQuery = true
+    )
+    int recordSessionStarted(@Param("therapistId") Long therapistId, @Param("today") LocalDate today, @Param("weekStart") LocalDate weekStart);
+    
+    @Modifying
+    @Query(
+            value = """
+            INSERT INTO therapist_stats (therapist_id, lifetime_sessions, sessions_today, today_date, sessions_this_week, week_start,
+                                         rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5)
+            VALUES (:therapistId, 0, 0, NULL, 0, NULL, :rating, 1,
+                    :rating = 1, :rating = 2, :rating = 3, :rating = 4, :rating = 5)
+            ON DUPLICATE KEY UPDATE
+                rating_sum = rating_sum + :rating,
+                rating_count = rating_count + 1,
+                rating_count_1 = rating_count_1 + (:rating = 1),
+                rating_count_2 = rating_count_2 + (:rating = 2),
+                rating_count_3 = rating_count_3 + (:rating = 3),
+                rating_count_4 = rating_count_4 + (:rating = 4),
+                rating_count_5 = rating_count_5 + (:rating = 5)
+        """,
+            nativeQuery = true
+    )
+    int recordRating(@Param("therapistId") Long therapistId, @Param("rating") int rating);
+    
+    
+    // One row per therapist from their full history; each subquery is a range scan on sessions(therapist_id, start_time).
+    // A row another instance created meanwhile is overwritten with the recomputed history instead of failing the insert.
+    @Modifying
+    @Query(
+            value = """
+            INSERT INTO therapist_stats (therapist_id, lifetime_sessions, sessions_today, today_date, sessions_this_week, week_start,
+                                         rating_sum, rating_count, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5)
+            SELECT
+                t.id,
+                (SELECT COUNT(*) FROM sessions s WHERE s.therapist_id = t.id),
+                (SELECT COUNT(*) FROM sessions s WHERE s.therapist_id = t.id AND s.start_time >= :today),
+                :today,
+                (SELECT COUNT(*) FROM sessions s WHERE s.therapist_id = t.id AND s.start_time >= :weekStart),
+                :weekStart,
+                COALESCE(r.rating_sum, 0), COALESCE(r.rating_count, 0),
+                COALESCE(r.rating_count_1, 0), COALESCE(r.rating_count_2, 0), COALESCE(r.rating_count_3, 0),
+                COALESCE(r.rating_count_4, 0), COALESCE(r.rating_count_5, 0)
+            FROM therapists t
+            LEFT JOIN (
+                SELECT s.therapist_id,
+                       SUM(f.rating) AS rating_sum, COUNT(*) AS rating_count,
+                       SUM(f.rating = 1) AS rating_count_1, SUM(f.rating = 2) AS rating_count_2, SUM(f.rating = 3) AS rating_count_3,
+                       SUM(f.rating = 4) AS rating_count_4, SUM(f.rating = 5) AS rating_count_5
+                FROM session_feedback f
+                JOIN sessions s ON s.id = f.session_id
+                GROUP BY s.therapist_id
+            ) r ON r.therapist_id = t.id
+            ON DUPLICATE KEY UPDATE
+                lifetime_sessions = VALUES(lifetime_sessions),
+                sessions_today = VALUES(sessions_today),
+                today_date = VALUES(today_date),
+                sessions_this_week = VALUES(sessions_this_week),
+                week_start = VALUES(week_start),
+                rating_sum = VALUES(rating_sum),
+                rating_count = VALUES(rating_count),
+                rating_count_1 = VALUES(rating_count_1),
+                rating_count_2 = VALUES(rating_count_2),
+                rating_count_3 = VALUES(rating_count_3),
+                rating_count_4 = VALUES(rating_count_4),
+                rating_count_5 = VALUES(rating_count_5)
+        """,
+            nativeQuery = true
+    )
+    int backfillFromHistory(@Param("today") LocalDate today, @Param("weekStart") LocalDate weekStart);
+}
@@ -0,0 +1,24 @@
+package com.spring.Suwatha.user_module.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The original behaviour: always hand the session to the lowest therapist id that is free.
+ * Enable with session.matching.strategy=first-available.
+ */
+@Component
+@ConditionalOnProperty(name = "session.matching.strategy", havingValue = "first-available")
+public class FirstAvailableMatchingStrategy implements TherapistMatchingStrategy {
+    
+    @Override
+    public List<Long> rank(Collection<Long> availableTherapistIds, Long requestedSpecializationId) {
+        List<Long> ranked = new ArrayList<>(availableTherapistIds);
+        ranked.sort(null);
+        return ranked;
+    }
+}
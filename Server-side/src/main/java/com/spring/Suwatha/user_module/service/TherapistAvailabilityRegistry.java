@@ -0,0 +1,158 @@
+package com.spring.Suwatha.user_module.service;
+
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.user_module.entity.Therapist;
+import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process view of which therapists can take a new session right now.
+ * Kept in two pools (general and hand-sign specialists) so that matching a patient
+ * is an in-memory ranking plus a lock-free set removal instead of a database lookup.
+ */
+@Component
+public class TherapistAvailabilityRegistry {
+
+    private final TherapistRepository therapistRepository;
+    private final TherapistMatchingStrategy matchingStrategy;
+
+    private final Set<Long> generalPool = ConcurrentHashMap.newKeySet();
+    private final Set<Long> handSignPool = ConcurrentHashMap.newKeySet();
+
+    public TherapistAvailabilityRegistry(TherapistRepository therapistRepository, TherapistMatchingStrategy matchingStrategy) {
+        this.therapistRepository = therapistRepository;
+        this.matchingStrategy = matchingStrategy;
+    }
+
+
+    //------------------------------ Rebuild from the database at startup ------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Therapist> available = therapistRepository.findByIsActiveTrueAndCurrentStatus(TherapistStatus.AVAILABLE);
+        generalPool.clear();
+        handSignPool.clear();
+        available.forEach(this::refresh);
+    }
+
+
+    //------------------------------ Claim a therapist for a session ------------------------------
+
+    /**
+     * Removes and returns the best available therapist id for the given communication type,
+     * as ranked by the configured {@link TherapistMatchingStrategy}.
+     * Special-needs sessions only use hand-sign specialists; general sessions prefer
+     * non-specialists and fall back to a specialist when none is free.
+     */
+    public Optional<Long> claim(CommunicationType type, Long requestedSpecializationId) {
+        if (type == CommunicationType.SPECIAL_NEEDS) {
+            return claimFrom(handSignPool, requestedSpecializationId);
+        }
+        Optional<Long> therapistId = claimFrom(generalPool, requestedSpecializationId);
+        return therapistId.isPresent() ? therapistId : claimFrom(handSignPool, requestedSpecializationId);
+    }
+
+    private Optional<Long> claimFrom(Set<Long> pool, Long requestedSpecializationId) {
+        if (pool.isEmpty()) {
+            return Optional.empty();
+        }
+        for (Long therapistId : matchingStrategy.rank(pool, requestedSpecializationId)) {
+            // remove() only succeeds for one caller, so two requests can never claim the same id
+            if (pool.remove(therapistId)) {
+                return Optional.of(therapistId);
+            }
+        }
+        return Optional.empty();
+    }
+
+
+    //------------------------------ Keep the pools in sync with therapist state ------------------------------
+
+    /**
+     * Re-registers the therapist according to its current state: active AVAILABLE therapists
+     * go into the matching pool for their skill set, everyone else is removed.
+     */
+    public void refresh(Therapist therapist) {
+        refresh(therapist.getId(), therapist.isActive(), therapist.getCurrentStatus(), therapist.isHandSignSpecialist());
+    }
+
+    /**
+     * Same as {@link #refresh(Therapist)}, but deferred until the surrounding transaction commits,
+     * so a request can never claim a therapist whose AVAILABLE state is not yet visible in the database
+     * (or is rolled back). Runs ahead of after-commit event listeners, which may match from the pools.
+     */
+    public void refreshAfterCommit(Therapist therapist) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(therapist);
+            return;
+        }
+        Long therapistId = therapist.getId();
+        boolean active = therapist.isActive();
+        TherapistStatus status = therapist.getCurrentStatus();
+        boolean handSignSpecialist = therapist.isHandSignSpecialist();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(therapistId, active, status, handSignSpecialist);
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        });
+    }
+
+    private void refresh(Long therapistId, boolean active, TherapistStatus status, boolean handSignSpecialist) {
+        markUnavailable(therapistId);
+        if (!active || status != TherapistStatus.AVAILABLE) {
+            return;
+        }
+        if (handSignSpecialist) {
+            handSignPool.add(therapistId);
+        } else {
+            generalPool.add(therapistId);
+        }
+    }
+
+    public void markUnavailable(Long therapistId) {
+        generalPool.remove(therapistId);
+        handSignPool.remove(therapistId);
+    }
+
+    /**
+     * Puts a claimed therapist back into its pool if the surrounding transaction does not commit,
+     * so a failed session request never leaks matching capacity.
+     */
+    public void returnOnRollback(Therapist therapist) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long therapistId = therapist.getId();
+        boolean handSignSpecialist = therapist.isHandSignSpecialist();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    (handSignSpecialist ? handSignPool : generalPool).add(therapistId);
+                }
+            }
+        });
+    }
+
+    public int availableCount() {
+        return generalPool.size() + handSignPool.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.spring.Suwatha.user_module.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decides which of the currently available therapists should get the next session.
+ * The registry tries the returned ids in order until one can be claimed.
+ */
+@FunctionalInterface
+public interface TherapistMatchingStrategy {
+    
+    /**
+     * @param availableTherapistIds    snapshot of one availability pool
+     * @param requestedSpecializationId specialization asked for by the patient, may be null
+     * @return the candidates, best match first
+     */
+    List<Long> rank(Collection<Long> availableTherapistIds, Long requestedSpecializationId);
+}
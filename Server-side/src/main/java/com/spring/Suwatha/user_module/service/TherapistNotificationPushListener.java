@@ -0,0 +1,28 @@
+package com.spring.Suwatha.user_module.service;
+
+
+import com.spring.Suwatha.user_module.event.TherapistNotificationCreatedEvent;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pushes a notification to the therapist's dashboard as soon as it is committed,
+ * so the dashboard no longer has to poll the notification list.
+ */
+@Component
+public class TherapistNotificationPushListener {
+    
+    public static final String NOTIFICATION_QUEUE = "/queue/notifications";
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    
+    public TherapistNotificationPushListener(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(TherapistNotificationCreatedEvent event) {
+        messagingTemplate.convertAndSendToUser(event.getTherapistEmail(), NOTIFICATION_QUEUE, event.getNotification());
+    }
+}
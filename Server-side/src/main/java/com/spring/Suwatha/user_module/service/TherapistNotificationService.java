@@ -6,11 +6,15 @@ import com.spring.Suwatha.user_module.dto.therapist.NotificationMapper;
 import com.spring.Suwatha.user_module.dto.therapist.TherapistNotificationViewDto;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import com.spring.Suwatha.user_module.entity.TherapistNotification;
+import com.spring.Suwatha.user_module.event.TherapistNotificationCreatedEvent;
 import com.spring.Suwatha.user_module.repository.TherapistNotificationRepository;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,14 +22,34 @@ import java.util.stream.Collectors;
 @Service
 public class TherapistNotificationService {
     private TherapistNotificationRepository notificationRepository;
+    private TherapistRepository therapistRepository;
+    private ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public void createNotification(Therapist therapist, String message, String linkUrl) {
+        saveAndPush(therapist, therapist.getEmail(), message, linkUrl);
+    }
+    
+    // Used by after-commit listeners that only carry the therapist id; no SELECT is issued for the therapist.
+    @Transactional
+    public void createNotification(Long therapistId, String therapistEmail, String message, String linkUrl) {
+        saveAndPush(therapistRepository.getReferenceById(therapistId), therapistEmail, message, linkUrl);
+    }
+    
+    private void saveAndPush(Therapist therapist, String therapistEmail, String message, String linkUrl) {
         TherapistNotification notification = new TherapistNotification();
         notification.setTherapist(therapist);
         notification.setMessage(message);
         notification.setLinkUrl(linkUrl);
-        notificationRepository.save(notification);
+        TherapistNotification savedNotification = notificationRepository.save(notification);
+        
+        // Delivered over WebSocket once this transaction commits. With pooled ids the INSERT (and the
+        // creation timestamp) is deferred to flush, so fall back to "now" for the pushed copy.
+        TherapistNotificationViewDto pushed = NotificationMapper.toNotificationViewDto(savedNotification);
+        if (pushed.getCreatedAt() == null) {
+            pushed.setCreatedAt(LocalDateTime.now());
+        }
+        eventPublisher.publishEvent(new TherapistNotificationCreatedEvent(therapistEmail, pushed));
     }
     
     public List<TherapistNotificationViewDto> getNotificationsForTherapist(Long therapistId) {
@@ -0,0 +1,161 @@
+package com.spring.Suwatha.user_module.service;
+
+
+import com.spring.Suwatha.session_module.event.FeedbackSubmittedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.session_module.repo.SessionFeedbackRepository;
+import com.spring.Suwatha.session_module.repo.SessionRepository;
+import com.spring.Suwatha.user_module.entity.Specialization;
+import com.spring.Suwatha.user_module.entity.Therapist;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed per-therapist matching inputs (specializations, recent rating, last assignment,
+ * sessions handled today) so that scoring a candidate never touches the database.
+ * Seeded once at startup and then updated from session-start and feedback events once their
+ * transaction has committed, so a rolled-back request never skews the ranking.
+ */
+@Component
+public class TherapistScoreIndex {
+    
+    private static final int RECENT_RATING_DAYS = 30;
+    
+    private final TherapistRepository therapistRepository;
+    private final SessionRepository sessionRepository;
+    private final SessionFeedbackRepository feedbackRepository;
+    
+    private final Map<Long, TherapistScore> scores = new ConcurrentHashMap<>();
+    
+    public TherapistScoreIndex(TherapistRepository therapistRepository,
+                               SessionRepository sessionRepository,
+                               SessionFeedbackRepository feedbackRepository) {
+        this.therapistRepository = therapistRepository;
+        this.sessionRepository = sessionRepository;
+        this.feedbackRepository = feedbackRepository;
+    }
+    
+    
+    //------------------------------ Seed from the database at startup ------------------------------
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        scores.clear();
+        therapistRepository.findAll().forEach(this::refreshProfile);
+        
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        for (Object[] row : sessionRepository.getTherapistLoadSince(startOfToday)) {
+            LocalDateTime lastStart = (LocalDateTime) row[2];
+            get((Long) row[0]).seedLoad(((Long) row[1]).intValue(),
+                    lastStart.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        
+        LocalDateTime ratingWindowStart = startOfToday.minusDays(RECENT_RATING_DAYS);
+        for (Object[] row : feedbackRepository.getAverageRatingPerTherapistSince(ratingWindowStart)) {
+            get((Long) row[0]).seedRating((Double) row[1]);
+        }
+    }
+    
+    
+    //------------------------------ Write paths ------------------------------
+    
+    public void refreshProfile(Therapist therapist) {
+        Set<Long> specializationIds = therapist.getSpecializations().stream()
+                .map(Specialization::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        get(therapist.getId()).setSpecializationIds(specializationIds);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionStarted(SessionStartedEvent event) {
+        recordAssignment(event.getTherapistId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackSubmitted(FeedbackSubmittedEvent event) {
+        recordRating(event.getTherapistId(), event.getRating());
+    }
+    
+    public void recordAssignment(Long therapistId) {
+        get(therapistId).recordAssignment(System.currentTimeMillis());
+    }
+    
+    public void recordRating(Long therapistId, int rating) {
+        get(therapistId).recordRating(rating);
+    }
+    
+    public TherapistScore get(Long therapistId) {
+        return scores.computeIfAbsent(therapistId, id -> new TherapistScore());
+    }
+    
+    
+    public static final class TherapistScore {
+        
+        // Therapists without recent feedback start slightly above the middle of the 1-5 scale
+        private static final double DEFAULT_RATING = 3.5;
+        // Weight of the newest rating in the moving average, so the score follows recent sessions
+        private static final double RATING_SMOOTHING = 0.2;
+        
+        private volatile Set<Long> specializationIds = Collections.emptySet();
+        private double recentRating = DEFAULT_RATING;
+        private long lastAssignedAtMillis;
+        private int sessionsToday;
+        private long sessionsTodayEpochDay = LocalDate.now().toEpochDay();
+        
+        public boolean hasSpecialization(Long specializationId) {
+            return specializationIds.contains(specializationId);
+        }
+        
+        void setSpecializationIds(Set<Long> specializationIds) {
+            this.specializationIds = specializationIds;
+        }
+        
+        public synchronized double getRecentRating() {
+            return recentRating;
+        }
+        
+        public synchronized long getLastAssignedAtMillis() {
+            return lastAssignedAtMillis;
+        }
+        
+        public synchronized int getSessionsToday() {
+            return sessionsTodayEpochDay == LocalDate.now().toEpochDay() ? sessionsToday : 0;
+        }
+        
+        synchronized void seedLoad(int sessionsToday, long lastAssignedAtMillis) {
+            this.sessionsToday = sessionsToday;
+            this.sessionsTodayEpochDay = LocalDate.now().toEpochDay();
+            this.lastAssignedAtMillis = Math.max(this.lastAssignedAtMillis, lastAssignedAtMillis);
+        }
+        
+        synchronized void seedRating(double averageRating) {
+            this.recentRating = averageRating;
+        }
+        
+        synchronized void recordAssignment(long nowMillis) {
+            long today = LocalDate.now().toEpochDay();
+            if (sessionsTodayEpochDay != today) {
+                sessionsTodayEpochDay = today;
+                sessionsToday = 0;
+            }
+            sessionsToday++;
+            lastAssignedAtMillis = nowMillis;
+        }
+        
+        synchronized void recordRating(int rating) {
+            recentRating = recentRating + RATING_SMOOTHING * (rating - recentRating);
+        }
+    }
+}
@@ -1,21 +1,24 @@
 package com.spring.Suwatha.user_module.service;
 
 import com.spring.Suwatha.file_module.FileService;
-import com.spring.Suwatha.session_module.repo.SessionFeedbackRepository;
-import com.spring.Suwatha.session_module.repo.SessionRepository;
 import com.spring.Suwatha.shared.email.EmailService;
 import com.spring.Suwatha.shared.exception.FileExistsException;
 import com.spring.Suwatha.shared.exception.InvalidPasswordException;
 import com.spring.Suwatha.shared.exception.ResourceNotFoundException;
+import com.spring.Suwatha.shared.search.NameSearchIndex;
 import com.spring.Suwatha.user_module.dto.therapist.*;
 import com.spring.Suwatha.user_module.entity.Specialization;
 import com.spring.Suwatha.user_module.entity.Therapist;
 import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import com.spring.Suwatha.user_module.event.TherapistAvailableEvent;
+import com.spring.Suwatha.user_module.event.TherapistStatusChangedEvent;
 import com.spring.Suwatha.user_module.repository.SpecializationRepository;
 import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import com.spring.Suwatha.user_module.repository.TherapistStatsRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,9 +27,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.time.DayOfWeek;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -53,10 +53,22 @@ public class TherapistService {
     private  FileService fileService;
     
     @Autowired
-    private SessionRepository sessionRepository;
+    private TherapistAvailabilityRegistry therapistAvailabilityRegistry;
     
     @Autowired
-    private SessionFeedbackRepository feedbackRepository;
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TherapistScoreIndex therapistScoreIndex;
+    
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+    
+    @Autowired
+    private TherapistStatsRepository therapistStatsRepository;
+    
+    @Autowired
+    private TherapistStatsService therapistStatsService;
     
     @Value("${project.poster.path}")
     private String path;
@@ -95,6 +107,9 @@ public class TherapistService {
         }
         
         Therapist savedTherapist = therapistRepository.save(therapist);
+        therapistScoreIndex.refreshProfile(savedTherapist);
+        nameSearchIndex.indexTherapistAfterCommit(savedTherapist);
+        publishStatusChanged(savedTherapist);
         
         String emailSubject = "Welcome to the Mental Health Platform";
         String emailText = "Hello " + savedTherapist.getName() + ",\n\nYour account has been created."
@@ -139,9 +154,12 @@ public class TherapistService {
     
     
     //---------------------------------- Update Therapist's details by id --------------------------------------------
+    @Transactional
     public  TherapistViewDto updateTherapistDetailsById(Long id , TherapistDetailsUpdateDto dto){
         Therapist therapist = therapistRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Therapist Not Found with Id :" + id));
+        boolean wasMatchable = isMatchable(therapist);
+        boolean wasHandSignSpecialist = therapist.isHandSignSpecialist();
         Optional.ofNullable(dto.getName()).ifPresent(therapist::setName);
         Optional.ofNullable(dto.getEmail()).ifPresent(therapist::setEmail);
         Optional.ofNullable(dto.getIsActive()).ifPresent(therapist::setActive);
@@ -156,6 +174,15 @@ public class TherapistService {
             }
         }
         Therapist updatedTherapist = therapistRepository.save(therapist);
+        // isActive / hand-sign changes move the therapist between matching pools
+        therapistAvailabilityRegistry.refreshAfterCommit(updatedTherapist);
+        therapistScoreIndex.refreshProfile(updatedTherapist);
+        nameSearchIndex.indexTherapistAfterCommit(updatedTherapist);
+        publishStatusChanged(updatedTherapist);
+        // Re-activation or a new skill set can serve patients that are waiting for a match
+        if (isMatchable(updatedTherapist) && (!wasMatchable || wasHandSignSpecialist != updatedTherapist.isHandSignSpecialist())) {
+            eventPublisher.publishEvent(new TherapistAvailableEvent(updatedTherapist.getId(), updatedTherapist.isHandSignSpecialist()));
+        }
         
         return toTherapistViewDto(updatedTherapist);
        
@@ -259,34 +286,36 @@ public class TherapistService {
         
         // 4. Save the changes and return the updated profile
         Therapist updatedTherapist = therapistRepository.save(therapist);
+        therapistAvailabilityRegistry.refreshAfterCommit(updatedTherapist);
+        publishStatusChanged(updatedTherapist);
+        if (newStatus == TherapistStatus.AVAILABLE && updatedTherapist.isActive()) {
+            eventPublisher.publishEvent(new TherapistAvailableEvent(updatedTherapist.getId(), updatedTherapist.isHandSignSpecialist()));
+        }
         return toTherapistViewDto(updatedTherapist);
     }
     
+    private void publishStatusChanged(Therapist therapist) {
+        eventPublisher.publishEvent(new TherapistStatusChangedEvent(therapist.getId(), therapist.getCurrentStatus(), therapist.isActive()));
+    }
+    
+    private boolean isMatchable(Therapist therapist) {
+        return therapist.isActive() && therapist.getCurrentStatus() == TherapistStatus.AVAILABLE;
+    }
+    
     
     
     // --------------------- get Dashboard Stats for therapist --------------------------------
     
+    // One read of the incrementally maintained therapist_stats row (see TherapistStatsService)
     public TherapistDashboardStatsDto getDashboardStats(String therapistEmail) {
-        // 1. Find the therapist to get their ID
-        Therapist therapist = therapistRepository.findByEmail(therapistEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("Therapist with email " + therapistEmail + " not found."));
-        Long therapistId = therapist.getId();
-        
-        // 2. Define the time ranges
-        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
-        // Assuming the week starts on Monday
-        LocalDateTime startOfWeek = LocalDate.now().with(DayOfWeek.MONDAY).atStartOfDay();
-        
-        // 3. Fetch the stats from the repositories
-        long sessionsToday = sessionRepository.countSessionsForTherapistSince(therapistId, startOfToday);
-        long sessionsThisWeek = sessionRepository.countSessionsForTherapistSince(therapistId, startOfWeek);
-        
-        // Use Optional to safely handle a null result if no ratings exist
-        Double avgRating = Optional.ofNullable(feedbackRepository.getAverageRatingForTherapist(therapistId))
-                .orElse(0.0);
-        
-        // 4. Assemble and return the DTO
-        return new TherapistDashboardStatsDto(sessionsToday, sessionsThisWeek, avgRating);
+        return therapistStatsRepository.findByTherapistEmail(therapistEmail)
+                .map(therapistStatsService::toDashboardStats)
+                .orElseGet(() -> {
+                    // No sessions or feedback yet
+                    therapistRepository.findByEmail(therapistEmail)
+                            .orElseThrow(() -> new ResourceNotFoundException("Therapist with email " + therapistEmail + " not found."));
+                    return therapistStatsService.emptyDashboardStats();
+                });
     }
     
     
@@ -0,0 +1,91 @@
+package com.spring.Suwatha.user_module.service;
+
+
+import com.spring.Suwatha.session_module.event.FeedbackSubmittedEvent;
+import com.spring.Suwatha.session_module.event.SessionStartedEvent;
+import com.spring.Suwatha.user_module.dto.therapist.TherapistDashboardStatsDto;
+import com.spring.Suwatha.user_module.entity.TherapistStats;
+import com.spring.Suwatha.user_module.repository.TherapistStatsRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps {@code therapist_stats} in step with sessions and feedback. The listeners are synchronous, so
+ * each upsert commits or rolls back together with the session or feedback that caused it.
+ */
+@Service
+public class TherapistStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TherapistStatsService.class);
+    
+    private final TherapistStatsRepository therapistStatsRepository;
+    private final TransactionTemplate transaction;
+    
+    public TherapistStatsService(TherapistStatsRepository therapistStatsRepository, PlatformTransactionManager transactionManager) {
+        this.therapistStatsRepository = therapistStatsRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+    
+    
+    //------------------------------ Incremental maintenance ------------------------------
+    
+    @EventListener
+    public void onSessionStarted(SessionStartedEvent event) {
+        LocalDate day = event.getStartTime().toLocalDate();
+        therapistStatsRepository.recordSessionStarted(event.getTherapistId(), day, weekStart(day));
+    }
+    
+    @EventListener
+    public void onFeedbackSubmitted(FeedbackSubmittedEvent event) {
+        therapistStatsRepository.recordRating(event.getTherapistId(), event.getRating());
+    }
+    
+    
+    //------------------------------ Read ------------------------------
+    
+    public TherapistDashboardStatsDto toDashboardStats(TherapistStats stats) {
+        LocalDate today = LocalDate.now();
+        // Counters of a past day/week are stale, not current
+        long sessionsToday = today.equals(stats.getTodayDate()) ? stats.getSessionsToday() : 0;
+        long sessionsThisWeek = weekStart(today).equals(stats.getWeekStart()) ? stats.getSessionsThisWeek() : 0;
+        double averageRating = stats.getRatingCount() == 0 ? 0.0 : (double) stats.getRatingSum() / stats.getRatingCount();
+        return new TherapistDashboardStatsDto(sessionsToday, sessionsThisWeek, averageRating,
+                stats.getLifetimeSessions(), stats.getRatingCount(),
+                List.of(stats.getRatingCount1(), stats.getRatingCount2(), stats.getRatingCount3(),
+                        stats.getRatingCount4(), stats.getRatingCount5()));
+    }
+    
+    public TherapistDashboardStatsDto emptyDashboardStats() {
+        return new TherapistDashboardStatsDto(0, 0, 0.0, 0, 0, List.of(0L, 0L, 0L, 0L, 0L));
+    }
+    
+    // Weeks start on Monday, as on the therapist dashboard
+    static LocalDate weekStart(LocalDate day) {
+        return day.with(DayOfWeek.MONDAY);
+    }
+    
+    
+    //------------------------------ Backfill ------------------------------
+    
+    // Runs during context startup, before the web server and schedulers take work, so no session or
+    // feedback write can land between the emptiness check and the INSERT ... SELECT
+    @PostConstruct
+    public void backfillIfEmpty() {
+        transaction.executeWithoutResult(status -> {
+            if (therapistStatsRepository.count() == 0) {
+                LocalDate today = LocalDate.now();
+                int rows = therapistStatsRepository.backfillFromHistory(today, weekStart(today));
+                log.info("Backfilled therapist_stats for {} therapist(s)", rows);
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package com.spring.Suwatha.user_module.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Load-aware matching: scores every available therapist from the in-memory
+ * {@link TherapistScoreIndex} and spreads sessions across the team instead of
+ * always picking the lowest id.
+ *
+ * score = specialization match + recent rating + time since last assignment - sessions handled today
+ */
+@Component
+@ConditionalOnProperty(name = "session.matching.strategy", havingValue = "weighted", matchIfMissing = true)
+public class WeightedMatchingStrategy implements TherapistMatchingStrategy {
+    
+    private final TherapistScoreIndex scoreIndex;
+    
+    @Value("${session.matching.weight.specialization:0.40}")
+    private double specializationWeight;
+    
+    @Value("${session.matching.weight.rating:0.25}")
+    private double ratingWeight;
+    
+    @Value("${session.matching.weight.idle:0.25}")
+    private double idleWeight;
+    
+    @Value("${session.matching.weight.load:0.10}")
+    private double loadWeight;
+    
+    // Idle time and daily load are capped so one long break or busy day cannot dominate the score
+    @Value("${session.matching.idle-cap-minutes:60}")
+    private double idleCapMinutes;
+    
+    @Value("${session.matching.load-cap-sessions:10}")
+    private double loadCapSessions;
+    
+    public WeightedMatchingStrategy(TherapistScoreIndex scoreIndex) {
+        this.scoreIndex = scoreIndex;
+    }
+    
+    @Override
+    public List<Long> rank(Collection<Long> availableTherapistIds, Long requestedSpecializationId) {
+        long now = System.currentTimeMillis();
+        List<ScoredTherapist> scored = new ArrayList<>(availableTherapistIds.size());
+        for (Long therapistId : availableTherapistIds) {
+            scored.add(new ScoredTherapist(therapistId, score(scoreIndex.get(therapistId), requestedSpecializationId, now)));
+        }
+        scored.sort(Comparator.comparingDouble(ScoredTherapist::score).reversed()
+                .thenComparing(ScoredTherapist::therapistId));
+        
+        List<Long> ranked = new ArrayList<>(scored.size());
+        for (ScoredTherapist candidate : scored) {
+            ranked.add(candidate.therapistId());
+        }
+        return ranked;
+    }
+    
+    private double score(TherapistScoreIndex.TherapistScore stats, Long requestedSpecializationId, long now) {
+        double specializationMatch = requestedSpecializationId != null && stats.hasSpecialization(requestedSpecializationId) ? 1.0 : 0.0;
+        double rating = stats.getRecentRating() / 5.0;
+        double idleMinutes = (now - stats.getLastAssignedAtMillis()) / 60_000.0;
+        double idle = Math.min(idleMinutes / idleCapMinutes, 1.0);
+        double load = Math.min(stats.getSessionsToday() / loadCapSessions, 1.0);
+        
+        return specializationWeight * specializationMatch
+                + ratingWeight * rating
+                + idleWeight * idle
+                - loadWeight * load;
+    }
+    
+    private record ScoredTherapist(Long therapistId, double score) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.spring.Suwatha.analytics_module.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LttbDownsamplerTest {
+    
+    @Test
+    void keepsEndpointsAndSpikes() {
+        long[] values = new long[1000];
+        values[417] = 500;
+        values[803] = -300;
+        
+        int[] kept = LttbDownsampler.selectIndexes(values, 20);
+        
+        assertEquals(20, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(999, kept[19]);
+        assertTrue(Arrays.stream(kept).anyMatch(index -> index == 417));
+        assertTrue(Arrays.stream(kept).anyMatch(index -> index == 803));
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+    }
+    
+    @Test
+    void returnsEverythingWhenTheSeriesAlreadyFits() {
+        assertArrayEquals(new int[]{0, 1, 2}, LttbDownsampler.selectIndexes(new long[]{5, 1, 7}, 10));
+    }
+}
@@ -0,0 +1,48 @@
+package com.spring.Suwatha.analytics_module.service;
+
+import com.spring.Suwatha.analytics_module.repository.SummaryFact;
+import com.spring.Suwatha.session_module.dto.Gender;
+import com.spring.Suwatha.session_module.dto.RiskAssessment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SummaryColumnsTest {
+    
+    private static SummaryFact fact(long id, String start, Long cityId, RiskAssessment risk, int duration) {
+        return new SummaryFact(id, LocalDateTime.parse(start), 100 + id, 7L, cityId, 3L, risk, 30, Gender.FEMALE, duration);
+    }
+    
+    @Test
+    void intersectsBitmapsOfEveryFilter() {
+        SummaryColumns columns = new SummaryColumns();
+        columns.append(fact(1, "2025-01-05T10:00:00", 1L, RiskAssessment.LOW, 30));
+        columns.append(fact(2, "2025-01-20T10:00:00", 1L, RiskAssessment.HIGH, 50));
+        columns.append(fact(3, "2025-02-01T10:00:00", 1L, RiskAssessment.LOW, 40));
+        columns.append(fact(4, "2025-01-07T10:00:00", null, RiskAssessment.LOW, 10));
+        
+        BitSet january = columns.select(SummaryColumns.monthKey(YearMonth.of(2025, 1)), 1, null, null, null);
+        assertEquals(2, january.cardinality());
+        assertEquals(40.0, columns.averageDuration(january));
+        assertEquals(2, columns.countDistinctPatients(january));
+        
+        BitSet lowRisk = columns.select(null, null, 3, RiskAssessment.LOW.ordinal(), 30);
+        assertEquals(3, lowRisk.cardinality());
+        
+        assertEquals(0, columns.select(null, 99, null, null, null).cardinality());
+    }
+    
+    @Test
+    void ignoresASummaryThatIsAppendedTwice() {
+        SummaryColumns columns = new SummaryColumns();
+        columns.append(fact(1, "2025-01-05T10:00:00", 1L, RiskAssessment.LOW, 30));
+        
+        assertFalse(columns.append(fact(1, "2025-01-05T10:00:00", 1L, RiskAssessment.LOW, 30)));
+        assertEquals(1, columns.size);
+    }
+}
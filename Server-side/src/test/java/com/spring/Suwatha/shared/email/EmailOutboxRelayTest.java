@@ -0,0 +1,160 @@
+package com.spring.Suwatha.shared.email;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+
+class EmailOutboxRelayTest {
+    
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 3_000;
+    
+    private EmailOutboxRepository outboxRepository;
+    private JavaMailSender mailSender;
+    private EmailOutboxRelay relay;
+    
+    @BeforeEach
+    void setUp() {
+        outboxRepository = Mockito.mock(EmailOutboxRepository.class);
+        mailSender = Mockito.mock(JavaMailSender.class);
+        relay = new EmailOutboxRelay(outboxRepository, mailSender);
+        ReflectionTestUtils.setField(relay, "batchSize", 50);
+        ReflectionTestUtils.setField(relay, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(relay, "initialBackoffMs", INITIAL_BACKOFF_MS);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", MAX_BACKOFF_MS);
+    }
+    
+    /**
+     * The SMTP session rejects only some recipients: exactly those rows are retried, the rest are SENT.
+     */
+    @Test
+    void partialFailureOnlyRetriesTheFailedMessages() {
+        EmailOutbox delivered = outbox("delivered@example.com", 0);
+        EmailOutbox rejected = outbox("rejected@example.com", 0);
+        EmailOutbox alsoDelivered = outbox("also-delivered@example.com", 0);
+        givenPending(delivered, rejected, alsoDelivered);
+        failRecipients("rejected@example.com");
+        
+        LocalDateTime before = LocalDateTime.now();
+        relay.relay();
+        LocalDateTime after = LocalDateTime.now();
+        
+        assertSent(delivered);
+        assertSent(alsoDelivered);
+        assertEquals(EmailOutboxStatus.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertEquals("550 mailbox unavailable", rejected.getLastError());
+        assertNull(rejected.getSentAt());
+        assertNextAttemptIn(rejected, before, after, INITIAL_BACKOFF_MS);
+        Mockito.verify(outboxRepository).saveAll(List.of(delivered, rejected, alsoDelivered));
+    }
+    
+    @Test
+    void backoffDoublesPerAttemptUpToTheCap() {
+        EmailOutbox secondAttempt = outbox("second@example.com", 1);
+        EmailOutbox thirdAttempt = outbox("third@example.com", 2);
+        givenPending(secondAttempt, thirdAttempt);
+        failRecipients("second@example.com", "third@example.com");
+        
+        LocalDateTime before = LocalDateTime.now();
+        relay.relay();
+        LocalDateTime after = LocalDateTime.now();
+        
+        assertEquals(2, secondAttempt.getAttempts());
+        assertNextAttemptIn(secondAttempt, before, after, 2 * INITIAL_BACKOFF_MS);
+        // 4 * initial would exceed the configured maximum
+        assertEquals(3, thirdAttempt.getAttempts());
+        assertNextAttemptIn(thirdAttempt, before, after, MAX_BACKOFF_MS);
+    }
+    
+    @Test
+    void rowIsFailedOnceMaxAttemptsIsReached() {
+        EmailOutbox lastAttempt = outbox("last@example.com", MAX_ATTEMPTS - 1);
+        LocalDateTime scheduledAt = lastAttempt.getNextAttemptAt();
+        givenPending(lastAttempt);
+        failRecipients("last@example.com");
+        
+        relay.relay();
+        
+        assertEquals(EmailOutboxStatus.FAILED, lastAttempt.getStatus());
+        assertEquals(MAX_ATTEMPTS, lastAttempt.getAttempts());
+        assertEquals(scheduledAt, lastAttempt.getNextAttemptAt());
+        assertNull(lastAttempt.getSentAt());
+    }
+    
+    @Test
+    void failureWithoutPerMessageDetailsRetriesTheWholeBatch() {
+        EmailOutbox first = outbox("first@example.com", 0);
+        EmailOutbox second = outbox("second@example.com", 0);
+        givenPending(first, second);
+        Mockito.doThrow(new MailSendException("Connection refused"))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+        
+        relay.relay();
+        
+        for (EmailOutbox outbox : List.of(first, second)) {
+            assertEquals(EmailOutboxStatus.PENDING, outbox.getStatus());
+            assertEquals(1, outbox.getAttempts());
+            assertEquals("Connection refused", outbox.getLastError());
+        }
+    }
+    
+    
+    private EmailOutbox outbox(String recipient, int attempts) {
+        EmailOutbox outbox = new EmailOutbox(recipient, "Subject", "Body");
+        outbox.setAttempts(attempts);
+        return outbox;
+    }
+    
+    private void givenPending(EmailOutbox... rows) {
+        Mockito.when(outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any()))
+                .thenReturn(List.of(rows));
+    }
+    
+    /**
+     * Mimics JavaMailSenderImpl: the failed-messages map is keyed by the SimpleMailMessage instances passed in.
+     */
+    private void failRecipients(String... recipients) {
+        List<String> rejected = List.of(recipients);
+        Mockito.doAnswer(invocation -> {
+            Map<Object, Exception> failed = new IdentityHashMap<>();
+            for (SimpleMailMessage message : (SimpleMailMessage[]) invocation.getRawArguments()[0]) {
+                if (rejected.contains(message.getTo()[0])) {
+                    failed.put(message, new MailSendException("550 mailbox unavailable"));
+                }
+            }
+            throw new MailSendException(failed);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+    }
+    
+    private void assertSent(EmailOutbox outbox) {
+        assertEquals(EmailOutboxStatus.SENT, outbox.getStatus());
+        assertEquals(0, outbox.getAttempts());
+        assertNotNull(outbox.getSentAt());
+        assertNull(outbox.getLastError());
+    }
+    
+    private void assertNextAttemptIn(EmailOutbox outbox, LocalDateTime before, LocalDateTime after, long backoffMs) {
+        Duration backoff = Duration.ofMillis(backoffMs);
+        LocalDateTime nextAttemptAt = outbox.getNextAttemptAt();
+        assertFalse(nextAttemptAt.isBefore(before.plus(backoff)));
+        assertFalse(nextAttemptAt.isAfter(after.plus(backoff)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.spring.Suwatha.shared.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    void admitsBurstThenRefillsAtConfiguredRate() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(2, 3, now);
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        long wait = bucket.tryAcquire(now);
+        assertEquals(SECOND / 2, wait);
+        
+        assertEquals(0, bucket.tryAcquire(now + wait));
+        assertTrue(bucket.tryAcquire(now + wait) > 0);
+    }
+    
+    @Test
+    void becomesIdleOnceFullyRefilled() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        bucket.tryAcquire(0);
+        
+        assertFalse(bucket.isIdle(0));
+        assertTrue(bucket.isIdle(SECOND));
+    }
+}
@@ -0,0 +1,49 @@
+package com.spring.Suwatha.shared.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+    
+    @Test
+    void returnsCandidatesContainingEveryTrigramOfTheTerm() {
+        TrigramIndex index = new TrigramIndex(false, 1000, 1000);
+        index.add(1, "Patient-ab12cd34");
+        index.add(2, "Patient-ab99zz00");
+        index.add(3, "Patient-12cdab34");
+        index.markReady();
+        
+        assertEquals(Optional.of(List.of(1L)), index.search("B12C"));
+        assertEquals(Optional.of(List.of()), index.search("xyz"));
+    }
+    
+    @Test
+    void fallsBackWhenItCannotNarrowTheSearch() {
+        TrigramIndex index = new TrigramIndex(false, 2, 1000);
+        index.add(1, "Patient-aaa");
+        index.add(2, "Patient-bbb");
+        index.add(3, "Patient-ccc");
+        
+        assertTrue(index.search("aaa").isEmpty()); // not loaded yet
+        index.markReady();
+        assertTrue(index.search("pa").isEmpty()); // shorter than a trigram
+        assertTrue(index.search("patient").isEmpty()); // only broad trigrams
+        assertEquals(Optional.of(List.of(2L)), index.search("ent-bbb"));
+    }
+    
+    @Test
+    void reindexingAnUpdatableDocumentDropsItsOldText() {
+        TrigramIndex index = new TrigramIndex(true, 1000, 1000);
+        index.add(7, "Dr. Perera");
+        index.add(7, "Dr. Silva");
+        index.markReady();
+        
+        assertEquals(Optional.of(List.of()), index.search("perera"));
+        assertEquals(Optional.of(List.of(7L)), index.search("silva"));
+    }
+}
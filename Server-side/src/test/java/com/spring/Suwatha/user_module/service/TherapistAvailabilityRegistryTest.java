@@ -0,0 +1,127 @@
+package com.spring.Suwatha.user_module.service;
+
+import com.spring.Suwatha.session_module.dto.CommunicationType;
+import com.spring.Suwatha.user_module.entity.Therapist;
+import com.spring.Suwatha.user_module.entity.TherapistStatus;
+import com.spring.Suwatha.user_module.repository.TherapistRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+class TherapistAvailabilityRegistryTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(TherapistAvailabilityRegistryTest.class);
+    
+    private static final int THERAPISTS = 2_000;
+    private static final int INSTANCES = 2;
+    
+    /**
+     * Several application instances, each with its own registry over the same therapists, race for them.
+     * The pools overlap across instances, so only the conditional AVAILABLE -> BUSY update keeps a
+     * therapist from being handed out twice; every therapist must be claimed exactly once overall.
+     * Claim throughput for each concurrency level is logged, so runs can be compared.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 64})
+    void concurrentClaimsNeverDoubleBook(int requesters) throws InterruptedException {
+        Map<Long, TherapistStatus> rows = new ConcurrentHashMap<>();
+        TherapistRepository repository = casBackedRepository(rows);
+        
+        List<TherapistAvailabilityRegistry> registries = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            registries.add(new TherapistAvailabilityRegistry(repository, new FirstAvailableMatchingStrategy()));
+        }
+        for (long id = 1; id <= THERAPISTS; id++) {
+            rows.put(id, TherapistStatus.AVAILABLE);
+            Therapist therapist = availableTherapist(id, id % 10 == 0);
+            registries.forEach(registry -> registry.refresh(therapist));
+        }
+        
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        AtomicInteger doubleBookings = new AtomicInteger();
+        AtomicInteger lostRaces = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(requesters);
+        
+        for (int i = 0; i < requesters; i++) {
+            int firstInstance = i % INSTANCES;
+            pool.submit(() -> {
+                start.await();
+                // Requesters start on different instances and then drain the others too
+                for (int offset = 0; offset < INSTANCES; offset++) {
+                    TherapistAvailabilityRegistry registry = registries.get((firstInstance + offset) % INSTANCES);
+                    // Same loop as SessionService.findAvailableTherapist
+                    Optional<Long> therapistId;
+                    while ((therapistId = registry.claim(CommunicationType.VIDEO, null)).isPresent()) {
+                        if (!repository.claimIfAvailable(therapistId.get())) {
+                            lostRaces.incrementAndGet();
+                        } else if (!claimed.add(therapistId.get())) {
+                            doubleBookings.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        
+        long startedAt = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        long elapsedNanos = System.nanoTime() - startedAt;
+        
+        log.info("requesters={} claims={} lostRaces={} claims/sec={}",
+                requesters, claimed.size(), lostRaces.get(),
+                Math.round(claimed.size() / (elapsedNanos / 1_000_000_000.0)));
+        
+        assertEquals(0, doubleBookings.get());
+        assertEquals(THERAPISTS, claimed.size());
+        // Every therapist sat in each instance's pool once: one winner, the other instances lose the update
+        assertEquals(THERAPISTS * (INSTANCES - 1), lostRaces.get());
+        assertTrue(rows.values().stream().allMatch(status -> status == TherapistStatus.BUSY));
+        registries.forEach(registry -> assertEquals(0, registry.availableCount()));
+    }
+    
+    /**
+     * Stands in for the database: compareAndSetStatus has the row-level semantics of the conditional UPDATE.
+     */
+    private TherapistRepository casBackedRepository(Map<Long, TherapistStatus> rows) {
+        // stubOnly: no invocation recording, so the mock does not serialize the racing threads
+        TherapistRepository repository = Mockito.mock(TherapistRepository.class,
+                Mockito.withSettings().stubOnly().defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        Mockito.doAnswer(invocation -> {
+            Long therapistId = invocation.getArgument(0);
+            TherapistStatus expected = invocation.getArgument(1);
+            TherapistStatus next = invocation.getArgument(2);
+            return rows.replace(therapistId, expected, next) ? 1 : 0;
+        }).when(repository).compareAndSetStatus(any(), any(), any());
+        return repository;
+    }
+    
+    private Therapist availableTherapist(long id, boolean handSignSpecialist) {
+        Therapist therapist = new Therapist();
+        therapist.setId(id);
+        therapist.setActive(true);
+        therapist.setHandSignSpecialist(handSignSpecialist);
+        therapist.setCurrentStatus(TherapistStatus.AVAILABLE);
+        return therapist;
+    }
+}